@@ -0,0 +1,76 @@
+package com.musicapp.neteasemusic.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.util.NeteaseResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 艺术家名称拼接：PlaylistServiceImpl.getArtistName基于JsonNode的拼接，
+ * 与NeteaseResponseParser在流式解析单首歌曲时的拼接对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtistNameBenchmark {
+
+    @Param({"1", "3", "10"})
+    private int artistCount;
+
+    private JsonNode artistsNode;
+
+    private byte[] singleTrackResponse;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] artists = BenchmarkFixtures.artistsArray(artistCount);
+        artistsNode = new ObjectMapper().readTree(artists);
+        singleTrackResponse = ("{\"songs\":[{\"name\":\"晴天\",\"id\":1000000,\"ar\":"
+                + new String(artists, StandardCharsets.UTF_8) + "}]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String treeModel() {
+        return getArtistName(artistsNode);
+    }
+
+    @Benchmark
+    public String streaming() throws IOException {
+        List<Song> songs = NeteaseResponseParser.readSongs(new ByteArrayInputStream(singleTrackResponse));
+        return songs.get(0).getArtists();
+    }
+
+    /**
+     * 与PlaylistServiceImpl.getArtistName一致
+     */
+    static String getArtistName(JsonNode artistsNode) {
+        StringBuilder artistBuilder = new StringBuilder();
+        for (int i = 0; i < artistsNode.size(); i++) {
+            if (i > 0) {
+                artistBuilder.append(", ");
+            }
+            artistBuilder.append(artistsNode.get(i).get("name").asText());
+        }
+        return artistBuilder.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package com.musicapp.neteasemusic.benchmark;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试使用的合成数据
+ * 字段结构与网易云音乐API的真实响应一致，包含解析时需要跳过的privileges、h/m/l音质等字段
+ */
+public final class BenchmarkFixtures {
+
+    private static final String[] ARTISTS = {"周杰伦", "林俊杰", "Taylor Swift", "陈奕迅", "Adele", "五月天"};
+    private static final String[] WORDS = {"晴天", "夜曲", "Love", "Story", "稻香", "海阔天空", "Hello", "Yellow"};
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 生成/playlist/track/all的响应体
+     */
+    public static byte[] tracksResponse(int trackCount) {
+        Random random = new Random(trackCount);
+        StringBuilder json = new StringBuilder(trackCount * 900);
+        json.append("{\"songs\":[");
+        for (int i = 0; i < trackCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendTrack(json, i, random);
+        }
+        json.append("],\"privileges\":[");
+        for (int i = 0; i < trackCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(1000000L + i)
+                    .append(",\"fee\":8,\"payed\":0,\"st\":0,\"pl\":128000,\"dl\":0,\"sp\":7,\"cp\":1,")
+                    .append("\"subp\":1,\"cs\":false,\"maxbr\":999000,\"fl\":128000,\"toast\":false,\"flag\":4,")
+                    .append("\"chargeInfoList\":[{\"rate\":128000,\"chargeType\":0},{\"rate\":320000,\"chargeType\":1}]}");
+        }
+        json.append("],\"code\":200}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 生成/playlist/detail的响应体，歌曲放在playlist.tracks中
+     */
+    public static byte[] playlistDetailResponse(int trackCount) {
+        Random random = new Random(trackCount);
+        StringBuilder json = new StringBuilder(trackCount * 900);
+        json.append("{\"code\":200,\"playlist\":{\"id\":2829883282,\"name\":\"基准测试歌单\",")
+                .append("\"description\":\"用于基准测试的合成歌单\",\"trackCount\":").append(trackCount)
+                .append(",\"tracks\":[");
+        for (int i = 0; i < trackCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendTrack(json, i, random);
+        }
+        json.append("]}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 生成歌曲的ar字段，即指定数量的艺术家数组
+     */
+    public static byte[] artistsArray(int artistCount) {
+        StringBuilder json = new StringBuilder(artistCount * 64);
+        json.append('[');
+        for (int i = 0; i < artistCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(6000 + i)
+                    .append(",\"name\":\"").append(ARTISTS[i % ARTISTS.length])
+                    .append("\",\"tns\":[],\"alias\":[]}");
+        }
+        json.append(']');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 生成已解析好的歌曲列表
+     */
+    public static List<Song> songs(int songCount) {
+        Random random = new Random(songCount);
+        List<Song> songs = new ArrayList<>(songCount);
+        for (int i = 0; i < songCount; i++) {
+            Song song = new Song();
+            song.setNeteaseSongId(1000000L + i);
+            song.setName(WORDS[random.nextInt(WORDS.length)] + " " + i);
+            song.setArtists(ARTISTS[random.nextInt(ARTISTS.length)] + "/" + ARTISTS[random.nextInt(ARTISTS.length)]);
+            song.setAlbum("专辑" + random.nextInt(500));
+            song.setDuration(120000 + random.nextInt(240000));
+            songs.add(song);
+        }
+        return songs;
+    }
+
+    /**
+     * 生成歌单
+     */
+    public static Playlist playlist(int trackCount) {
+        Playlist playlist = new Playlist();
+        playlist.setId(1L);
+        playlist.setNeteasePlaylistId("2829883282");
+        playlist.setName("基准测试歌单");
+        playlist.setDescription("用于基准测试的合成歌单");
+        playlist.setTrackCount(trackCount);
+        return playlist;
+    }
+
+    private static void appendTrack(StringBuilder json, int index, Random random) {
+        json.append("{\"name\":\"").append(WORDS[random.nextInt(WORDS.length)]).append(' ').append(index)
+                .append("\",\"id\":").append(1000000L + index)
+                .append(",\"pst\":0,\"t\":0,\"ar\":[");
+        int artistCount = 1 + random.nextInt(3);
+        for (int a = 0; a < artistCount; a++) {
+            if (a > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(6000 + random.nextInt(1000))
+                    .append(",\"name\":\"").append(ARTISTS[random.nextInt(ARTISTS.length)])
+                    .append("\",\"tns\":[],\"alias\":[]}");
+        }
+        json.append("],\"alia\":[],\"pop\":100,\"st\":0,\"rt\":\"\",\"fee\":8,\"v\":42,\"crbt\":null,\"cf\":\"\",")
+                .append("\"al\":{\"id\":").append(18000 + random.nextInt(5000))
+                .append(",\"name\":\"专辑").append(random.nextInt(500))
+                .append("\",\"picUrl\":\"https://p1.music.126.net/abcdefghijklmnop/").append(109951163000000L + index)
+                .append(".jpg\",\"tns\":[],\"pic_str\":\"").append(109951163000000L + index)
+                .append("\",\"pic\":").append(109951163000000L + index).append("},")
+                .append("\"dt\":").append(120000 + random.nextInt(240000))
+                .append(",\"h\":{\"br\":320000,\"fid\":0,\"size\":10368909,\"vd\":-2.0},")
+                .append("\"m\":{\"br\":192000,\"fid\":0,\"size\":6221363,\"vd\":-2.0},")
+                .append("\"l\":{\"br\":128000,\"fid\":0,\"size\":4147590,\"vd\":-2.0},")
+                .append("\"a\":null,\"cd\":\"1\",\"no\":").append(1 + random.nextInt(12))
+                .append(",\"rtUrl\":null,\"ftype\":0,\"rtUrls\":[],\"djId\":0,\"copyright\":1,\"s_id\":0,")
+                .append("\"mark\":8192,\"originCoverType\":0,\"single\":0,\"noCopyrightRcmd\":null,")
+                .append("\"mst\":9,\"cp\":7001,\"mv\":0,\"rtype\":0,\"rurl\":null,\"publishTime\":1209052800007}");
+    }
+}
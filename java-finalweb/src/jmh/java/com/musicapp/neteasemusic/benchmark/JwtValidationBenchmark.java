@@ -0,0 +1,85 @@
+package com.musicapp.neteasemusic.benchmark;
+
+import com.musicapp.neteasemusic.util.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtils令牌校验：每个请求在AuthTokenFilter中都会走一次
+ * roleCount控制令牌中roles声明的大小，对应令牌长度的变化
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "neteaseMusicExportSecretKey";
+
+    @Param({"1", "5"})
+    private int roleCount;
+
+    private JwtUtils jwtUtils;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3600000);
+
+        List<String> roles = new ArrayList<>();
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(i == 0 ? "ROLE_USER" : "ROLE_EXTRA_" + i);
+        }
+        token = Jwts.builder()
+                .setSubject("benchmark")
+                .claim(JwtUtils.CLAIM_ROLES, roles)
+                .claim(JwtUtils.CLAIM_USER_ID, 1L)
+                .claim(JwtUtils.CLAIM_EMAIL, "benchmark@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 24L * 3600 * 1000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public Claims parseJwtClaims() {
+        return jwtUtils.parseJwtClaims(token);
+    }
+
+    @Benchmark
+    public String validateThenGetUserName() {
+        // AuthTokenFilter改造前的做法：先校验，再重新解析一次取用户名
+        if (jwtUtils.validateJwtToken(token)) {
+            return jwtUtils.getUserNameFromJwtToken(token);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.musicapp.neteasemusic.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicapp.neteasemusic.model.Song;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /playlist/detail响应到Song的映射：PlaylistServiceImpl.saveNeteasePlaylist中的JsonNode树映射
+ * 原方法在事务中逐首查库保存，无法脱离Spring单独调用，这里只复现其中的映射循环；
+ * readTree单独作为一项，便于区分树构建与字段映射各自的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlaylistDetailMappingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int trackCount;
+
+    private byte[] payload;
+
+    private JsonNode tracksNode;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = BenchmarkFixtures.playlistDetailResponse(trackCount);
+        tracksNode = objectMapper.readTree(payload).path("playlist").path("tracks");
+    }
+
+    @Benchmark
+    public JsonNode readTree() throws IOException {
+        return objectMapper.readTree(payload);
+    }
+
+    @Benchmark
+    public List<Song> mapTracks() {
+        return mapTracks(tracksNode);
+    }
+
+    @Benchmark
+    public List<Song> readTreeAndMap() throws IOException {
+        JsonNode playlistDetail = objectMapper.readTree(payload);
+        return mapTracks(playlistDetail.get("playlist").get("tracks"));
+    }
+
+    private static List<Song> mapTracks(JsonNode tracksNode) {
+        List<Song> songs = new ArrayList<>();
+        for (JsonNode trackNode : tracksNode) {
+            Song song = new Song();
+            song.setNeteaseSongId(trackNode.get("id").asLong());
+            song.setName(trackNode.get("name").asText());
+            song.setArtists(ArtistNameBenchmark.getArtistName(trackNode.get("ar")));
+            song.setAlbum(trackNode.get("al").get("name").asText());
+            song.setDuration((int) (trackNode.get("dt").asLong() / 1000));
+            songs.add(song);
+        }
+        return songs;
+    }
+}
@@ -0,0 +1,112 @@
+package com.musicapp.neteasemusic.benchmark;
+
+import com.musicapp.neteasemusic.service.SongCatalogIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 歌曲目录索引：同步一个歌单时按网易云歌曲ID逐个解析本地歌曲ID
+ * songCount为目录中的歌曲数，每次调用解析一个PLAYLIST_SIZE首歌的歌单；
+ * boxedHashMap是HashMap<Long, Long>的对照组，百万级条目时每个条目约占80字节，索引约占32字节
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SongCatalogIndexBenchmark {
+
+    private static final int PLAYLIST_SIZE = 1000;
+
+    // 网易云歌曲ID不连续，按固定步长生成以接近真实分布
+    private static final long ID_BASE = 186016L;
+
+    private static final long ID_STRIDE = 37L;
+
+    @Param({"1000000", "4000000"})
+    private int songCount;
+
+    private SongCatalogIndex index;
+
+    private Map<Long, Long> boxedIndex;
+
+    private long[] knownIds;
+
+    private long[] unknownIds;
+
+    @Setup
+    public void setUp() {
+        index = new SongCatalogIndex();
+        ReflectionTestUtils.setField(index, "maxEntries", songCount);
+        ReflectionTestUtils.setField(index, "segmentCount", 16);
+        index.init();
+
+        boxedIndex = new HashMap<>(songCount * 2);
+        for (int i = 0; i < songCount; i++) {
+            long neteaseSongId = ID_BASE + i * ID_STRIDE;
+            index.put(neteaseSongId, i + 1);
+            boxedIndex.put(neteaseSongId, (long) (i + 1));
+        }
+
+        // 分段写满时会轮换淘汰，命中组只取索引中仍然存在的歌曲
+        Random random = new Random(42);
+        knownIds = new long[PLAYLIST_SIZE];
+        for (int i = 0; i < PLAYLIST_SIZE; ) {
+            long neteaseSongId = ID_BASE + random.nextInt(songCount) * ID_STRIDE;
+            if (index.get(neteaseSongId) != SongCatalogIndex.NOT_FOUND) {
+                knownIds[i++] = neteaseSongId;
+            }
+        }
+        unknownIds = new long[PLAYLIST_SIZE];
+        for (int i = 0; i < PLAYLIST_SIZE; i++) {
+            // 步长内的偏移保证不与目录中的ID重合
+            unknownIds[i] = ID_BASE + random.nextInt(songCount) * ID_STRIDE + 1;
+        }
+    }
+
+    @Benchmark
+    public long resolveKnownSongs() {
+        long sum = 0;
+        for (long neteaseSongId : knownIds) {
+            sum += index.get(neteaseSongId);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long resolveUnknownSongs() {
+        long sum = 0;
+        for (long neteaseSongId : unknownIds) {
+            sum += index.get(neteaseSongId);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long resolveKnownSongsBoxedHashMap() {
+        long sum = 0;
+        for (long neteaseSongId : knownIds) {
+            Long songId = boxedIndex.get(neteaseSongId);
+            if (songId != null) {
+                sum += songId;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,85 @@
+package com.musicapp.neteasemusic.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.util.NeteaseResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /playlist/track/all响应解析：原先的字符串+JsonNode树映射与流式解析对比
+ * 配合 -prof gc 运行可同时比较每次解析的内存分配
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrackParsingBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    private int trackCount;
+
+    private byte[] payload;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Setup
+    public void setUp() {
+        payload = BenchmarkFixtures.tracksResponse(trackCount);
+    }
+
+    @Benchmark
+    public List<Song> treeModel() throws IOException {
+        // 与改造前NeteaseMusicApiService的实现一致：先读成字符串，再构建JsonNode树后映射
+        String responseBody = new String(payload, StandardCharsets.UTF_8);
+        JsonNode songsArray = objectMapper.readTree(responseBody).path("songs");
+
+        List<Song> songs = new ArrayList<>();
+        for (JsonNode node : songsArray) {
+            Song song = new Song();
+            song.setNeteaseSongId(node.path("id").asLong());
+            song.setName(node.path("name").asText());
+
+            StringBuilder artists = new StringBuilder();
+            JsonNode artistsArray = node.path("ar");
+            for (int i = 0; i < artistsArray.size(); i++) {
+                if (i > 0) {
+                    artists.append("/");
+                }
+                artists.append(artistsArray.get(i).path("name").asText());
+            }
+            song.setArtists(artists.toString());
+
+            JsonNode albumNode = node.path("al");
+            song.setAlbum(albumNode.path("name").asText());
+            song.setCoverUrl(albumNode.path("picUrl").asText());
+            song.setDuration(node.path("dt").asInt());
+            songs.add(song);
+        }
+        return songs;
+    }
+
+    @Benchmark
+    public List<Song> streaming() throws IOException {
+        return NeteaseResponseParser.readSongs(new ByteArrayInputStream(payload));
+    }
+}
@@ -0,0 +1,136 @@
+package com.musicapp.neteasemusic.benchmark;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.service.export.TxtExportFormat;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单歌单txt导出渲染：改造前的ExportService.exportPlaylistToTxt与TxtExportFormat对比
+ * songs计数器给出每秒渲染的歌曲数；配合 -prof gc 运行，gc.alloc.rate.norm除以songCount即每首歌曲的分配字节数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TxtRenderingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int songCount;
+
+    private Playlist playlist;
+
+    private List<Song> songs;
+
+    private final TxtExportFormat txtExportFormat = new TxtExportFormat();
+
+    @Setup
+    public void setUp() {
+        playlist = BenchmarkFixtures.playlist(songCount);
+        songs = BenchmarkFixtures.songs(songCount);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class SongCounter {
+        public long songs;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            songs = 0;
+        }
+    }
+
+    /**
+     * 只统计字节数、丢弃写入内容的输出流，避免把结果缓冲区的扩容计入渲染开销
+     */
+    @State(Scope.Thread)
+    public static class Sink extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    @Benchmark
+    public byte[] legacyExportPlaylistToTxt(SongCounter counter) throws IOException {
+        counter.songs += songCount;
+        // 与改造前ExportService.exportPlaylistToTxt的实现一致
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+             OutputStreamWriter writer = new OutputStreamWriter(baos, StandardCharsets.UTF_8)) {
+            legacyRender(writer);
+            return baos.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public void legacyToStream(SongCounter counter, Sink sink) throws IOException {
+        counter.songs += songCount;
+        OutputStreamWriter writer = new OutputStreamWriter(sink, StandardCharsets.UTF_8);
+        legacyRender(writer);
+    }
+
+    @Benchmark
+    public void rendererToStream(SongCounter counter, Sink sink) throws IOException {
+        counter.songs += songCount;
+        txtExportFormat.write(playlist, songs.iterator(), songs.size(), sink);
+    }
+
+    private void legacyRender(OutputStreamWriter writer) throws IOException {
+        writer.write("===== 歌单信息 =====\n");
+        writer.write("歌单名称: " + playlist.getName() + "\n");
+        if (playlist.getDescription() != null && !playlist.getDescription().isEmpty()) {
+            writer.write("歌单描述: " + playlist.getDescription() + "\n");
+        }
+        writer.write("歌曲数量: " + songs.size() + "\n");
+        writer.write("导出时间: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()) + "\n");
+        writer.write("==================\n\n");
+
+        writer.write("===== 歌曲列表 =====\n");
+        for (int i = 0; i < songs.size(); i++) {
+            Song song = songs.get(i);
+            writer.write(String.format("%d. %s - %s\n", i + 1, song.getName(), song.getArtists()));
+            if (song.getAlbum() != null && !song.getAlbum().isEmpty()) {
+                writer.write("   专辑: " + song.getAlbum() + "\n");
+            }
+            if (song.getDuration() != null) {
+                int totalSeconds = song.getDuration() / 1000;
+                writer.write("   时长: " + String.format("%d:%02d", totalSeconds / 60, totalSeconds % 60) + "\n");
+            }
+            writer.write("\n");
+        }
+        writer.write("==================\n");
+        writer.flush();
+    }
+}
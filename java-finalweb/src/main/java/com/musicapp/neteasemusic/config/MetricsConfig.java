@@ -0,0 +1,81 @@
+package com.musicapp.neteasemusic.config;
+
+import com.musicapp.neteasemusic.service.ExportCacheService;
+import com.musicapp.neteasemusic.service.NeteaseMusicApiService;
+import com.musicapp.neteasemusic.service.NeteaseSearchService;
+import com.musicapp.neteasemusic.service.SongCatalogIndex;
+import com.musicapp.neteasemusic.util.NeteaseHttpGateway;
+import com.musicapp.neteasemusic.util.NeteaseMusicApiClient;
+import com.musicapp.neteasemusic.util.NeteaseRateLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 监控指标配置
+ * 把各组件getStats()中的统计注册为Gauge，这些统计只通过受来源地址限制的/actuator/prometheus提供；每个请求执行的SQL语句数由SqlStatementBudgetConfig记录，
+ * 仓库方法的单次耗时由Spring Boot自带的spring.data.repository.invocations计时器记录
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 把各组件已有的统计数据暴露为Gauge，名称为前缀加统计项
+     * 这些组件本身也依赖MeterRegistry，因此在应用启动完成后再注册，避免与注册表的创建形成循环依赖
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void bindComponentStats(ApplicationStartedEvent event) {
+        ApplicationContext context = event.getApplicationContext();
+        bindStats("netease.export.cache", Tags.empty(), context.getBean(ExportCacheService.class)::getStats);
+        bindStats("netease.search.cache", Tags.empty(), context.getBean(NeteaseSearchService.class)::getStats);
+        bindStats("netease.song.catalog", Tags.empty(), context.getBean(SongCatalogIndex.class)::getStats);
+        bindStats("netease.upstream.coalescing", Tags.of("endpoint", "playlist-tracks"),
+                context.getBean(NeteaseMusicApiService.class)::getCoalescingStats);
+        bindStats("netease.upstream.coalescing", Tags.of("endpoint", "playlist-detail"),
+                context.getBean(NeteaseMusicApiClient.class)::getCoalescingStats);
+        bindStats("netease.upstream.rate-limit", Tags.empty(), context.getBean(NeteaseRateLimiter.class)::getStats);
+        bindStats("netease.upstream.http", Tags.empty(), context.getBean(NeteaseHttpGateway.class)::getStats);
+    }
+
+    /**
+     * 统计项在绑定时确定，每次抓取时重新调用getStats()读取最新值
+     */
+    private void bindStats(String prefix, Tags tags, Supplier<? extends Map<String, ? extends Number>> stats) {
+        for (String key : stats.get().keySet()) {
+            Gauge.builder(prefix + "." + toMeterName(key), stats, supplier -> {
+                        Number value = supplier.get().get(key);
+                        return value != null ? value.doubleValue() : Double.NaN;
+                    })
+                    .tags(tags)
+                    .strongReference(true)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 驼峰统计项转为指标名的点分形式，如sizeBytes转为size.bytes
+     */
+    private static String toMeterName(String key) {
+        StringBuilder name = new StringBuilder(key.length() + 4);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isUpperCase(c)) {
+                name.append('.').append(Character.toLowerCase(c));
+            } else {
+                name.append(c);
+            }
+        }
+        return name.toString();
+    }
+}
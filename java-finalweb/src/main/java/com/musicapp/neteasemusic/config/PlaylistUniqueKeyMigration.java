@@ -0,0 +1,100 @@
+package com.musicapp.neteasemusic.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 启动时删除playlists.netease_playlist_id上旧的单列唯一索引
+ * 同一个网易云歌单现在按(user_id, netease_playlist_id)唯一，每个用户各有一行。ddl-auto=update只会新增联合唯一约束，
+ * 不会删除旧库中的单列唯一索引，不删除的话第二个用户同步或导入同一歌单时插入会失败。
+ * MySQL上自动执行DROP INDEX，其他数据库直接启动失败并提示手动处理
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class PlaylistUniqueKeyMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistUniqueKeyMigration.class);
+
+    private static final String TABLE = "playlists";
+
+    private static final String COLUMN = "netease_playlist_id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() throws SQLException {
+        List<String> indexNames;
+        String productName;
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            productName = metaData.getDatabaseProductName();
+            indexNames = singleColumnUniqueIndexes(metaData, connection.getCatalog());
+        }
+        if (indexNames.isEmpty()) {
+            return;
+        }
+
+        if (!productName.toLowerCase(Locale.ROOT).contains("mysql")) {
+            throw new IllegalStateException("Unique index " + indexNames + " on " + TABLE + "." + COLUMN
+                    + " prevents users from sharing a playlist on " + productName
+                    + "; drop it manually, uniqueness is now enforced on (user_id, " + COLUMN + ")");
+        }
+
+        for (String indexName : indexNames) {
+            logger.info("Dropping unique index {} on {}.{}", indexName, TABLE, COLUMN);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP INDEX `" + indexName + "`");
+        }
+    }
+
+    /**
+     * 只包含netease_playlist_id一列的唯一索引名，主键和联合索引不在其中
+     */
+    private static List<String> singleColumnUniqueIndexes(DatabaseMetaData metaData, String catalog) throws SQLException {
+        // 不同数据库对未加引号的标识符大小写处理不同，依次尝试原样和大写
+        for (String table : new String[]{TABLE, TABLE.toUpperCase(Locale.ROOT)}) {
+            Map<String, List<String>> columnsByIndex = new HashMap<>();
+            try (ResultSet indexes = metaData.getIndexInfo(catalog, null, table, true, false)) {
+                while (indexes.next()) {
+                    String indexName = indexes.getString("INDEX_NAME");
+                    String column = indexes.getString("COLUMN_NAME");
+                    if (indexName == null || column == null || "PRIMARY".equalsIgnoreCase(indexName)) {
+                        continue;
+                    }
+                    columnsByIndex.computeIfAbsent(indexName, k -> new ArrayList<>()).add(column);
+                }
+            }
+            if (columnsByIndex.isEmpty()) {
+                continue;
+            }
+            List<String> result = new ArrayList<>();
+            for (Map.Entry<String, List<String>> entry : columnsByIndex.entrySet()) {
+                List<String> columns = entry.getValue();
+                if (columns.size() == 1 && COLUMN.equalsIgnoreCase(columns.get(0))) {
+                    result.add(entry.getKey());
+                }
+            }
+            return result;
+        }
+        return new ArrayList<>();
+    }
+}
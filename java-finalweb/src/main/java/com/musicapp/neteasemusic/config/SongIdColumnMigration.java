@@ -0,0 +1,92 @@
+package com.musicapp.neteasemusic.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Locale;
+
+/**
+ * 启动时把songs.netease_song_id迁移为BIGINT
+ * ddl-auto=update不会修改已有列的类型，旧库中该列仍是VARCHAR，按数字查询时MySQL会逐行转换类型而无法使用唯一索引。
+ * 在Hibernate建表之后、应用开始接收请求之前检查列类型：MySQL上自动执行ALTER，无法迁移时直接启动失败
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SongIdColumnMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(SongIdColumnMigration.class);
+
+    private static final String TABLE = "songs";
+
+    private static final String COLUMN = "netease_song_id";
+
+    private static final String COUNT_NON_NUMERIC_SQL =
+            "SELECT COUNT(*) FROM songs WHERE netease_song_id NOT REGEXP '^[0-9]{1,18}$'";
+
+    private static final String ALTER_SQL = "ALTER TABLE songs MODIFY netease_song_id BIGINT NOT NULL";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() throws SQLException {
+        int dataType;
+        String productName;
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            productName = metaData.getDatabaseProductName();
+            dataType = columnType(metaData, connection.getCatalog());
+        }
+        if (dataType == Types.BIGINT || dataType == Types.NULL) {
+            return;
+        }
+
+        if (!productName.toLowerCase(Locale.ROOT).contains("mysql")) {
+            throw new IllegalStateException("Column " + TABLE + "." + COLUMN + " must be BIGINT but has JDBC type "
+                    + dataType + " on " + productName + "; migrate it manually: " + ALTER_SQL);
+        }
+
+        // 旧版本在歌曲缺少ID时写入空字符串，这类行无法转换为数字，需要先人工清理
+        Integer invalid = jdbcTemplate.queryForObject(COUNT_NON_NUMERIC_SQL, Integer.class);
+        if (invalid != null && invalid > 0) {
+            throw new IllegalStateException(invalid + " rows in " + TABLE + " have a non-numeric " + COLUMN
+                    + "; remove them (and their playlist_songs rows) before migrating the column to BIGINT");
+        }
+
+        logger.info("Migrating {}.{} to BIGINT, this rebuilds the table", TABLE, COLUMN);
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute(ALTER_SQL);
+        logger.info("Migrated {}.{} to BIGINT in {} ms", TABLE, COLUMN, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 列的JDBC类型，表或列不存在时返回Types.NULL
+     */
+    private static int columnType(DatabaseMetaData metaData, String catalog) throws SQLException {
+        // 不同数据库对未加引号的标识符大小写处理不同，依次尝试原样和大写
+        for (String table : new String[]{TABLE, TABLE.toUpperCase(Locale.ROOT)}) {
+            for (String column : new String[]{COLUMN, COLUMN.toUpperCase(Locale.ROOT)}) {
+                try (ResultSet columns = metaData.getColumns(catalog, null, table, column)) {
+                    if (columns.next()) {
+                        return columns.getInt("DATA_TYPE");
+                    }
+                }
+            }
+        }
+        return Types.NULL;
+    }
+}
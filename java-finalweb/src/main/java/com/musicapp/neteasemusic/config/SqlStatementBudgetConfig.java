@@ -0,0 +1,135 @@
+package com.musicapp.neteasemusic.config;
+
+import com.musicapp.neteasemusic.util.SqlStatementBudgetExceededException;
+import com.musicapp.neteasemusic.util.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+
+/**
+ * 每个HTTP请求的SQL语句预算
+ * 统计请求线程上执行的SQL语句数，超过接口预算时记录警告；sql.budget.fail-on-exceed为true时（test环境），
+ * 处理方法返回后抛出SqlStatementBudgetExceededException，让N+1之类的性能退化在测试中暴露出来。
+ * 异常在控制器之外抛出，不会被控制器的异常处理转成普通的错误响应。
+ * 接口预算通过sql.budget.控制器类名.方法名配置，未配置的接口使用sql.budget.default
+ */
+@Configuration
+public class SqlStatementBudgetConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementBudgetConfig.class);
+
+    private static final String BUDGET_PROPERTY_PREFIX = "sql.budget.";
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sql.budget.default:100}")
+    private int defaultBudget;
+
+    @Value("${sql.budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    /**
+     * 包装DataSource以统计语句数
+     */
+    @Bean
+    public static BeanPostProcessor sqlStatementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource) {
+                    return SqlStatementCounter.wrap((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod) {
+                    String endpoint = endpointName((HandlerMethod) handler);
+                    int budget = environment.getProperty(BUDGET_PROPERTY_PREFIX + endpoint, Integer.class, defaultBudget);
+                    SqlStatementCounter.begin(endpoint, budget);
+                }
+                return true;
+            }
+
+            @Override
+            public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                   ModelAndView modelAndView) {
+                failIfExceeded();
+            }
+
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                       Object handler) {
+                // 流式响应的后续部分在异步线程中执行，预算只覆盖请求线程上的部分；
+                // 这里抛出的异常会被DispatcherServlet吞掉，异步处理的接口超出预算时只记录警告
+                finish(request);
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                finish(request);
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    private void failIfExceeded() {
+        SqlStatementCounter.Budget budget = SqlStatementCounter.current();
+        if (failOnExceed && budget != null && budget.isExceeded()) {
+            throw new SqlStatementBudgetExceededException(budget.getEndpoint(), budget.getCount(), budget.getLimit());
+        }
+    }
+
+    private void finish(HttpServletRequest request) {
+        SqlStatementCounter.Budget budget = SqlStatementCounter.end();
+        if (budget == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("netease.sql.statements")
+                .description("SQL statements executed per API request")
+                .tag("uri", uri)
+                .tag("method", request.getMethod())
+                .register(meterRegistry)
+                .record(budget.getCount());
+
+        if (budget.isExceeded()) {
+            meterRegistry.counter("netease.sql.budget.exceeded", "uri", uri, "method", request.getMethod()).increment();
+            logger.warn("{} {} ({}) executed {} SQL statements, budget is {}", request.getMethod(),
+                    request.getRequestURI(), budget.getEndpoint(), budget.getCount(), budget.getLimit());
+        }
+    }
+
+    private static String endpointName(HandlerMethod handlerMethod) {
+        return handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+    }
+}
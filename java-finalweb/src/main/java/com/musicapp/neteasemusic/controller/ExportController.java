@@ -1,15 +1,25 @@
 package com.musicapp.neteasemusic.controller;
 
+import com.musicapp.neteasemusic.model.ExportJob;
 import com.musicapp.neteasemusic.model.Playlist;
 import com.musicapp.neteasemusic.model.Song;
 import com.musicapp.neteasemusic.model.User;
 import com.musicapp.neteasemusic.repository.UserRepository;
 import com.musicapp.neteasemusic.security.services.UserDetailsImpl;
+import com.musicapp.neteasemusic.service.ExportCacheService;
+import com.musicapp.neteasemusic.service.ExportJobService;
+import com.musicapp.neteasemusic.service.ExportMetrics;
 import com.musicapp.neteasemusic.service.ExportService;
 import com.musicapp.neteasemusic.service.PlaylistService;
+import com.musicapp.neteasemusic.service.PlaylistSongsLoader;
+import com.musicapp.neteasemusic.service.export.ExportFormat;
+import com.musicapp.neteasemusic.service.export.ExportFormatRegistry;
+import com.musicapp.neteasemusic.util.ExportJobRejectedException;
+import com.musicapp.neteasemusic.util.UpstreamThrottledException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,11 +27,26 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.ZipOutputStream;
 
 @RestController
 @RequestMapping("/api/export")
@@ -33,15 +58,55 @@ public class ExportController {
     @Autowired
     private PlaylistService playlistService;
 
+    @Autowired
+    private PlaylistSongsLoader playlistSongsLoader;
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private ExportCacheService exportCacheService;
+
+    @Autowired
+    private ExportFormatRegistry exportFormatRegistry;
+
+    @Autowired
+    private ExportMetrics exportMetrics;
+
     @Autowired
     private UserRepository userRepository;
 
     /**
-     * 导出单个歌单为txt文件
+     * 导出单个歌单，格式由路径指定（txt、csv、jsonl、m3u8、xspf）
+     */
+    @GetMapping("/playlist/{id}/{format}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> exportPlaylist(@PathVariable Long id, @PathVariable String format,
+                                            @RequestParam(defaultValue = "false") boolean refresh,
+                                            HttpServletRequest request) throws UpstreamThrottledException {
+        Optional<ExportFormat> exportFormat = exportFormatRegistry.getFormat(format);
+        if (!exportFormat.isPresent()) {
+            return ResponseEntity.badRequest().body("Unsupported export format: " + format
+                    + ". Supported formats: " + exportFormatRegistry.getFormatNames());
+        }
+        return exportPlaylist(id, exportFormat.get(), refresh, request);
+    }
+
+    /**
+     * 导出单个歌单，格式由Accept请求头决定，默认为txt
      */
-    @GetMapping("/playlist/{id}/txt")
+    @GetMapping("/playlist/{id}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> exportPlaylistToTxt(@PathVariable Long id) {
+    public ResponseEntity<?> exportPlaylistByAccept(@PathVariable Long id,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                    @RequestParam(defaultValue = "false") boolean refresh,
+                                                    HttpServletRequest request) throws UpstreamThrottledException {
+        return exportPlaylist(id, exportFormatRegistry.resolve(accept), refresh, request);
+    }
+
+    private ResponseEntity<?> exportPlaylist(Long id, ExportFormat format, boolean refresh, HttpServletRequest request)
+            throws UpstreamThrottledException {
+        ExportMetrics.Recording recording = exportMetrics.start(format.getName(), "single");
         try {
             // 获取当前用户
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -66,39 +131,167 @@ public class ExportController {
                 return ResponseEntity.badRequest().body("You don't have permission to export this playlist");
             }
 
+            // 快照新鲜时歌曲列表由快照决定，客户端的文件仍然有效时在加载歌曲前直接返回304
+            String etag = null;
+            if (!refresh && playlistService.isSnapshotFresh(playlist)) {
+                etag = exportCacheService.snapshotETag(playlist, format);
+                if (new ServletWebRequest(request).checkNotModified(etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+
             // 获取歌单的歌曲列表
-            List<Song> songs = playlistService.getPlaylistSongs(id, cookie);
+            List<Song> songs = playlistService.getPlaylistSongs(id, cookie, refresh);
+            if (etag == null) {
+                // 歌曲重新拉取后快照字段已更新，按新的快照计算ETag
+                Playlist refreshed = playlistService.getPlaylistById(id).orElse(playlist);
+                etag = exportCacheService.snapshotETag(refreshed, format);
+            }
+
+            // 命中缓存时直接发送缓存文件，未命中时按所选格式渲染到缓存；
+            // 租约一直持有到文件发送完毕，期间条目即使被并发请求淘汰，文件也不会被删除
+            String cacheKey = exportCacheService.cacheKey(playlist, songs, format);
+            ExportCacheService.Lease lease = exportCacheService.getOrRender(cacheKey,
+                    out -> format.write(playlist, songs.iterator(), songs.size(), out));
+            try {
+                long length = lease.getSize();
+                int songCount = songs.size();
+                StreamingResponseBody body = outputStream -> {
+                    try (ExportCacheService.Lease held = lease;
+                         FileChannel file = FileChannel.open(held.getFile(), StandardOpenOption.READ)) {
+                        // 由文件通道直接向响应流传输，不经过应用层的读写缓冲
+                        WritableByteChannel target = Channels.newChannel(recording.wrap(outputStream));
+                        long position = 0;
+                        while (position < length) {
+                            long transferred = file.transferTo(position, length - position, target);
+                            if (transferred <= 0) {
+                                throw new EOFException("Export cache file is shorter than " + length + " bytes");
+                            }
+                            position += transferred;
+                        }
+                        recording.addSongs(songCount);
+                        recording.finish();
+                    }
+                };
+
+                // 设置响应头，触发文件下载
+                String fileName = exportService.getExportFileName(playlist.getName(), format.getFileExtension());
+                HttpHeaders headers = new HttpHeaders();
+                headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+                headers.setETag(etag);
+
+                return ResponseEntity.ok()
+                        .headers(headers)
+                        .contentType(MediaType.parseMediaType(format.getContentType()))
+                        .contentLength(length)
+                        .body(body);
+            } catch (RuntimeException e) {
+                // 响应体未交出前失败时由这里释放租约，交出后由响应体释放
+                lease.close();
+                throw e;
+            }
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (UpstreamThrottledException e) {
+            // 限流交给UpstreamExceptionHandler返回429/503
+            throw e;
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Error exporting playlist: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 导出用户所有歌单为单个文件，格式由路径指定（txt、csv、jsonl、m3u8、xspf）
+     */
+    @GetMapping("/all/{format}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> exportAllPlaylists(@PathVariable String format,
+                                                @RequestParam(defaultValue = "false") boolean refresh) {
+        try {
+            Optional<ExportFormat> exportFormat = exportFormatRegistry.getFormat(format);
+            if (!exportFormat.isPresent()) {
+                return ResponseEntity.badRequest().body("Unsupported export format: " + format
+                        + ". Supported formats: " + exportFormatRegistry.getFormatNames());
+            }
+            ExportMetrics.Recording recording = exportMetrics.start(exportFormat.get().getName(), "all");
+
+            // 获取当前用户
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            Long userId = userDetails.getId();
+
+            // 获取用户的网易云Cookie
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+            String cookie = user.getNeteaseCookie();
+
+            if (cookie == null || cookie.isEmpty()) {
+                return ResponseEntity.badRequest().body("Netease cookie not found. Please sync your playlists first.");
+            }
+
+            // 获取用户所有歌单
+            List<Playlist> playlists = playlistService.getUserPlaylists(userId);
+
+            if (playlists.isEmpty()) {
+                return ResponseEntity.badRequest().body("No playlists found for export");
+            }
 
-            // 导出为txt文件
-            byte[] txtContent = exportService.exportPlaylistToTxt(playlist, songs);
+            // 逐个歌单写入响应流，每个歌单的歌曲就绪后立即发送给客户端
+            String username = userDetails.getUsername();
+            StreamingResponseBody body = outputStream -> {
+                ExportFormat.AllPlaylistsWriter writer = exportFormat.get()
+                        .openAll(username, playlists.size(), recording.wrap(outputStream));
+
+                // 并发加载各歌单的歌曲，按原顺序写出，单个歌单失败时写入错误提示
+                playlistSongsLoader.loadInOrder(playlists, cookie, refresh, (playlist, songs, error) -> {
+                    if (error != null) {
+                        writer.writeError(playlist, error.getMessage());
+                    } else {
+                        writer.writePlaylist(playlist, songs);
+                        recording.addSongs(songs.size());
+                    }
+                });
+                writer.finish();
+                recording.finish();
+            };
 
             // 设置响应头，触发文件下载
-            String fileName = exportService.getExportFileName(playlist.getName());
+            String fileName = "网易云音乐_歌单导出_" + 
+                    java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + 
+                    "." + exportFormat.get().getFileExtension();
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
 
             return ResponseEntity.ok()
                     .headers(headers)
-                    .contentType(MediaType.parseMediaType("text/plain; charset=utf-8"))
-                    .contentLength(txtContent.length)
-                    .body(new ByteArrayResource(txtContent));
+                    .contentType(MediaType.parseMediaType(exportFormat.get().getContentType()))
+                    .body(body);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (IOException e) {
-            return ResponseEntity.badRequest().body("Error exporting playlist: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
 
     /**
-     * 导出用户所有歌单为txt文件
+     * 导出用户所有歌单为ZIP压缩包，每个歌单一个文件，格式由format参数指定，默认为txt
      */
-    @GetMapping("/all/txt")
+    @GetMapping("/all/zip")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> exportAllPlaylistsToTxt() {
+    public ResponseEntity<?> exportAllPlaylistsToZip(@RequestParam(defaultValue = ExportFormatRegistry.DEFAULT_FORMAT) String format,
+                                                     @RequestParam(defaultValue = "false") boolean refresh) {
         try {
+            Optional<ExportFormat> exportFormat = exportFormatRegistry.getFormat(format);
+            if (!exportFormat.isPresent()) {
+                return ResponseEntity.badRequest().body("Unsupported export format: " + format
+                        + ". Supported formats: " + exportFormatRegistry.getFormatNames());
+            }
+            ExportMetrics.Recording recording = exportMetrics.start(exportFormat.get().getName(), "zip");
+
             // 获取当前用户
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -120,66 +313,135 @@ public class ExportController {
                 return ResponseEntity.badRequest().body("No playlists found for export");
             }
 
-            // 创建一个包含所有歌单的大型txt文件
-            StringBuilder allContent = new StringBuilder();
-            allContent.append("===== 网易云音乐歌单导出 =====\n");
-            allContent.append("用户: " + userDetails.getUsername() + "\n");
-            allContent.append("导出时间: " + java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")) + "\n");
-            allContent.append("歌单总数: " + playlists.size() + "\n");
-            allContent.append("=========================\n\n");
-
-            for (Playlist playlist : playlists) {
-                // 获取每个歌单的歌曲列表
-                List<Song> songs = playlistService.getPlaylistSongs(playlist.getId(), cookie);
-
-                // 添加歌单信息
-                allContent.append("\n===== 歌单: " + playlist.getName() + " =====\n");
-                if (playlist.getDescription() != null && !playlist.getDescription().isEmpty()) {
-                    allContent.append("描述: " + playlist.getDescription() + "\n");
-                }
-                allContent.append("歌曲数量: " + songs.size() + "\n");
-                allContent.append("=========================\n\n");
-
-                // 添加歌曲列表
-                for (int i = 0; i < songs.size(); i++) {
-                    Song song = songs.get(i);
-                    allContent.append(String.format("%d. %s - %s\n", i + 1, song.getName(), song.getArtists()));
-                    if (song.getAlbum() != null && !song.getAlbum().isEmpty()) {
-                        allContent.append("   专辑: " + song.getAlbum() + "\n");
-                    }
-                    if (song.getDuration() != null) {
-                        int totalSeconds = song.getDuration() / 1000;
-                        int minutes = totalSeconds / 60;
-                        int seconds = totalSeconds % 60;
-                        allContent.append(String.format("   时长: %d:%02d\n", minutes, seconds));
+            // 每个歌单的歌曲就绪后立即写为一个ZIP条目，内存占用只与当前条目有关
+            StreamingResponseBody body = outputStream -> {
+                ZipOutputStream zip = exportService.openZip(recording.wrap(outputStream));
+                Set<String> entryNames = new HashSet<>();
+                playlistSongsLoader.loadInOrder(playlists, cookie, refresh, (playlist, songs, error) -> {
+                    if (error != null) {
+                        exportService.writeZipErrorEntry(zip, entryNames, playlist, error.getMessage());
+                    } else {
+                        exportService.writeZipEntry(zip, entryNames, playlist, songs, exportFormat.get());
+                        recording.addSongs(songs.size());
                     }
-                    allContent.append("\n");
-                }
-                allContent.append("\n");
-            }
-
-            // 转换为字节数组
-            byte[] txtContent = allContent.toString().getBytes("UTF-8");
+                    zip.flush();
+                });
+                zip.finish();
+                recording.finish();
+            };
 
             // 设置响应头，触发文件下载
-            String fileName = "网易云音乐_歌单导出_" + 
-                    java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + 
-                    ".txt";
+            String fileName = "网易云音乐_歌单导出_" +
+                    java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) +
+                    ".zip";
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
 
             return ResponseEntity.ok()
                     .headers(headers)
-                    .contentType(MediaType.parseMediaType("text/plain; charset=utf-8"))
-                    .contentLength(txtContent.length)
-                    .body(new ByteArrayResource(txtContent));
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .body(body);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (IOException e) {
-            return ResponseEntity.badRequest().body("Error exporting playlists: " + e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 创建异步导出任务，不传playlistId时导出用户所有歌单
+     */
+    @PostMapping("/jobs")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> createExportJob(@RequestParam(required = false) Long playlistId,
+                                             @RequestParam(defaultValue = ExportFormatRegistry.DEFAULT_FORMAT) String format) {
+        try {
+            // 获取当前用户
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            Long userId = userDetails.getId();
+
+            // 获取用户的网易云Cookie
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+            String cookie = user.getNeteaseCookie();
+
+            if (cookie == null || cookie.isEmpty()) {
+                return ResponseEntity.badRequest().body("Netease cookie not found. Please sync your playlists first.");
+            }
+
+            ExportFormat exportFormat = exportFormatRegistry.getFormat(format)
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported export format: " + format));
+
+            ExportJob job;
+            if (playlistId != null) {
+                Playlist playlist = playlistService.getPlaylistById(playlistId)
+                        .orElseThrow(() -> new IllegalArgumentException("Playlist not found"));
+
+                // 验证歌单所属权
+                if (!playlist.getUser().getId().equals(userId)) {
+                    return ResponseEntity.badRequest().body("You don't have permission to export this playlist");
+                }
+                job = exportJobService.submitPlaylistJob(userId, playlist, cookie, exportFormat);
+            } else {
+                List<Playlist> playlists = playlistService.getUserPlaylists(userId);
+                if (playlists.isEmpty()) {
+                    return ResponseEntity.badRequest().body("No playlists found for export");
+                }
+                job = exportJobService.submitAllPlaylistsJob(userId, userDetails.getUsername(), playlists, cookie,
+                        exportFormat);
+            }
+            return ResponseEntity.ok(job);
+
+        } catch (ExportJobRejectedException e) {
+            // 任务数或队列已满交给UpstreamExceptionHandler返回429/503
+            throw e;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询导出任务的状态和进度
+     */
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> getExportJob(@PathVariable String jobId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        return exportJobService.getJob(jobId, userDetails.getId())
+                .map(job -> ResponseEntity.ok(job))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 下载已完成的导出文件
+     */
+    @GetMapping("/jobs/{jobId}/download")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> downloadExportJob(@PathVariable String jobId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        Optional<ExportJob> jobOptional = exportJobService.getJob(jobId, userDetails.getId());
+        if (!jobOptional.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        ExportJob job = jobOptional.get();
+        if (job.getStatus() != ExportJob.Status.COMPLETED || job.getFile() == null) {
+            return ResponseEntity.badRequest().body("Export job is not completed: " + job.getStatus());
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getFileName());
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.parseMediaType(job.getContentType()))
+                .body(new FileSystemResource(job.getFile()));
+    }
+}
@@ -1,11 +1,16 @@
 package com.musicapp.neteasemusic.controller;
 
 import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.PlaylistImportRequest;
+import com.musicapp.neteasemusic.model.PlaylistSyncResult;
 import com.musicapp.neteasemusic.model.Song;
 import com.musicapp.neteasemusic.model.User;
 import com.musicapp.neteasemusic.repository.UserRepository;
 import com.musicapp.neteasemusic.security.services.UserDetailsImpl;
+import com.musicapp.neteasemusic.service.NeteaseSearchService;
+import com.musicapp.neteasemusic.service.PlaylistImportService;
 import com.musicapp.neteasemusic.service.PlaylistService;
+import com.musicapp.neteasemusic.util.UpstreamThrottledException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -27,6 +32,12 @@ public class PlaylistController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private NeteaseSearchService neteaseSearchService;
+
+    @Autowired
+    private PlaylistImportService playlistImportService;
+
     /**
      * 获取当前用户的歌单列表
      */
@@ -41,19 +52,35 @@ public class PlaylistController {
         return ResponseEntity.ok(playlists);
     }
 
+    /**
+     * 获取当前用户的歌单摘要列表，一次查询返回仪表盘所需的全部字段
+     */
+    @GetMapping("/user/summary")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> getUserPlaylistSummaries() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        return ResponseEntity.ok(playlistService.getUserPlaylistSummaries(userDetails.getId()));
+    }
+
     /**
      * 同步用户的网易云音乐歌单
      */
     @PostMapping("/sync")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> syncUserPlaylists(@RequestParam String neteaseUserId, @RequestParam String cookie) {
+    public ResponseEntity<?> syncUserPlaylists(@RequestParam String neteaseUserId, @RequestParam String cookie)
+            throws UpstreamThrottledException {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
             Long userId = userDetails.getId();
 
-            List<Playlist> playlists = playlistService.syncUserPlaylists(userId, neteaseUserId, cookie);
-            return ResponseEntity.ok(playlists);
+            PlaylistSyncResult result = playlistService.syncUserPlaylists(userId, neteaseUserId, cookie);
+            return ResponseEntity.ok(result);
+        } catch (UpstreamThrottledException e) {
+            // 限流交给UpstreamExceptionHandler返回429/503
+            throw e;
         } catch (IOException e) {
             return ResponseEntity.badRequest().body("Error syncing playlists: " + e.getMessage());
         } catch (Exception e) {
@@ -61,6 +88,40 @@ public class PlaylistController {
         }
     }
 
+    /**
+     * 按网易云歌单ID批量导入歌单，逐个返回每个歌单的导入结果
+     */
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> importPlaylists(@RequestBody PlaylistImportRequest importRequest)
+            throws UpstreamThrottledException {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            Long userId = userDetails.getId();
+
+            // 获取用户的网易云Cookie
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+            String cookie = user.getNeteaseCookie();
+
+            if (cookie == null || cookie.isEmpty()) {
+                return ResponseEntity.badRequest().body("Netease cookie not found. Please sync your playlists first.");
+            }
+
+            return ResponseEntity.ok(playlistImportService.importPlaylists(userId, importRequest.getPlaylistIds(), cookie));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (UpstreamThrottledException e) {
+            // 限流交给UpstreamExceptionHandler返回429/503
+            throw e;
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body("Error importing playlists: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     /**
      * 获取歌单详情
      */
@@ -77,7 +138,9 @@ public class PlaylistController {
      */
     @GetMapping("/{id}/songs")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<?> getPlaylistSongs(@PathVariable Long id) {
+    public ResponseEntity<?> getPlaylistSongs(@PathVariable Long id,
+                                              @RequestParam(defaultValue = "false") boolean refresh)
+            throws UpstreamThrottledException {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
@@ -92,8 +155,11 @@ public class PlaylistController {
                 return ResponseEntity.badRequest().body("Netease cookie not found. Please sync your playlists first.");
             }
 
-            List<Song> songs = playlistService.getPlaylistSongs(id, cookie);
+            List<Song> songs = playlistService.getPlaylistSongs(id, cookie, refresh);
             return ResponseEntity.ok(songs);
+        } catch (UpstreamThrottledException e) {
+            // 限流交给UpstreamExceptionHandler返回429/503
+            throw e;
         } catch (IOException e) {
             return ResponseEntity.badRequest().body("Error getting playlist songs: " + e.getMessage());
         } catch (Exception e) {
@@ -101,6 +167,46 @@ public class PlaylistController {
         }
     }
 
+    /**
+     * 分页获取歌单的歌曲列表，只读取本地数据库，不刷新网易云数据
+     * 首页不传after，之后传入上一页返回的nextCursor
+     */
+    @GetMapping("/{id}/songs/page")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> getPlaylistSongsPage(@PathVariable Long id,
+                                                  @RequestParam(required = false) Long after,
+                                                  @RequestParam(defaultValue = "100") int size) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+            return ResponseEntity.ok(playlistService.getPlaylistSongsPage(id, userDetails.getId(), after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 搜索网易云歌单，相同关键词（忽略大小写、全半角和多余空白）的结果会被缓存
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> searchPlaylists(@RequestParam String keyword,
+                                             @RequestParam(defaultValue = "30") int limit,
+                                             @RequestParam(defaultValue = "0") int offset)
+            throws UpstreamThrottledException {
+        try {
+            return ResponseEntity.ok(neteaseSearchService.searchPlaylists(keyword, limit, offset));
+        } catch (UpstreamThrottledException e) {
+            // 限流交给UpstreamExceptionHandler返回429/503
+            throw e;
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     /**
      * 删除歌单
      */
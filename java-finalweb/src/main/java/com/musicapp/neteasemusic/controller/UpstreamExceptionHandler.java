@@ -0,0 +1,42 @@
+package com.musicapp.neteasemusic.controller;
+
+import com.musicapp.neteasemusic.util.ExportJobRejectedException;
+import com.musicapp.neteasemusic.util.UpstreamThrottledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 网易云API限流和导出任务排队的统一响应：控制器把UpstreamThrottledException、ExportJobRejectedException原样抛出，不转成400
+ * 本地限流器或在途请求数已满时返回429，上游持续返回429时返回503，都带Retry-After，前端据此稍后重试
+ */
+@RestControllerAdvice
+public class UpstreamExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamExceptionHandler.class);
+
+    @ExceptionHandler(UpstreamThrottledException.class)
+    public ResponseEntity<String> handleThrottled(UpstreamThrottledException e) {
+        HttpStatus status = e.isUpstream() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        logger.debug("Netease API throttled, responding {}: {}", status.value(), e.getMessage());
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    /**
+     * 用户的导出任务数已达上限时返回429，导出队列已满时返回503
+     */
+    @ExceptionHandler(ExportJobRejectedException.class)
+    public ResponseEntity<String> handleExportRejected(ExportJobRejectedException e) {
+        HttpStatus status = e.isQueueFull() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        logger.debug("Export job rejected, responding {}: {}", status.value(), e.getMessage());
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+}
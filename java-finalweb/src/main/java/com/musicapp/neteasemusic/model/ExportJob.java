@@ -0,0 +1,49 @@
+package com.musicapp.neteasemusic.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.util.Date;
+
+@Data
+public class ExportJob {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    private String id;
+
+    @JsonIgnore
+    private Long userId;
+
+    /**
+     * 导出单个歌单时为歌单ID，导出全部歌单时为null
+     */
+    private Long playlistId;
+
+    private volatile Status status = Status.PENDING;
+
+    private volatile int totalPlaylists;
+
+    private volatile int completedPlaylists;
+
+    private volatile int failedPlaylists;
+
+    private String fileName;
+
+    @JsonIgnore
+    private String contentType = "text/plain; charset=utf-8";
+
+    @JsonIgnore
+    private volatile Path file;
+
+    private volatile String errorMessage;
+
+    private Date createdAt;
+
+    private volatile Date finishedAt;
+
+    private volatile Date expiresAt;
+}
@@ -2,11 +2,13 @@ package com.musicapp.neteasemusic.model;
 
 import lombok.Data;
 import javax.persistence.*;
-import java.util.List;
 import java.util.Date;
 
 @Entity
-@Table(name = "playlists")
+@Table(name = "playlists", indexes = @Index(name = "idx_playlists_user_id", columnList = "user_id"),
+        // 同一个网易云歌单可以被多个用户各自同步或导入，每个用户一行
+        uniqueConstraints = @UniqueConstraint(name = "uk_playlists_user_netease_playlist",
+                columnNames = {"user_id", "netease_playlist_id"}))
 @Data
 public class Playlist {
 
@@ -20,7 +22,7 @@ public class Playlist {
     @Column(name = "description", length = 500)
     private String description;
 
-    @Column(name = "netease_playlist_id", nullable = false, unique = true, length = 50)
+    @Column(name = "netease_playlist_id", nullable = false, length = 50)
     private String neteasePlaylistId;
 
     @Column(name = "cover_url", length = 255)
@@ -29,6 +31,23 @@ public class Playlist {
     @Column(name = "track_count")
     private Integer trackCount;
 
+    @Column(name = "netease_update_time")
+    private Long neteaseUpdateTime;
+
+    @Column(name = "snapshot_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date snapshotAt;
+
+    @Column(name = "snapshot_track_count")
+    private Integer snapshotTrackCount;
+
+    @Column(name = "snapshot_update_time")
+    private Long snapshotUpdateTime;
+
+    // 通过批量导入加入的歌单，同步用户歌单时不会因为不在用户的网易云歌单列表中而被删除
+    @Column(name = "imported", nullable = false)
+    private boolean imported;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Temporal(TemporalType.TIMESTAMP)
     private Date createdAt;
@@ -41,14 +60,6 @@ public class Playlist {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @ManyToMany(fetch = FetchType.LAZY)
-    @JoinTable(
-        name = "playlist_songs",
-        joinColumns = @JoinColumn(name = "playlist_id"),
-        inverseJoinColumns = @JoinColumn(name = "song_id")
-    )
-    private List<Song> songs;
-
     @PrePersist
     protected void onCreate() {
         createdAt = new Date();
@@ -0,0 +1,14 @@
+package com.musicapp.neteasemusic.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class PlaylistImportRequest {
+
+    /**
+     * 要导入的网易云歌单ID
+     */
+    private List<String> playlistIds;
+}
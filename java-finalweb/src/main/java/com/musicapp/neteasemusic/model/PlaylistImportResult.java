@@ -0,0 +1,42 @@
+package com.musicapp.neteasemusic.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PlaylistImportResult {
+
+    public enum Status {
+        SUCCESS, FAILED
+    }
+
+    private int requested;
+    private int succeeded;
+    private int failed;
+
+    /**
+     * 每个歌单的导入结果，顺序与请求中的歌单ID一致（重复的ID只保留一个）
+     */
+    private List<Item> items = new ArrayList<>();
+
+    @Data
+    public static class Item {
+
+        private String neteasePlaylistId;
+
+        private Status status;
+
+        /**
+         * 导入成功时为本地歌单ID
+         */
+        private Long playlistId;
+
+        private String name;
+
+        private Integer trackCount;
+
+        private String errorMessage;
+    }
+}
@@ -0,0 +1,35 @@
+package com.musicapp.neteasemusic.model;
+
+import lombok.Data;
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * 歌单与歌曲的关联行，playlist_songs表只由这个实体映射
+ * track_position决定歌单内的顺序，取值之间保留间隔，插入或移动歌曲时只需改动相关的行；
+ * 关联行只通过PlaylistRepository.replaceSongs以JDBC批处理写入，按顺序读取歌曲使用SongRepository.findByPlaylistIdInPositionOrder
+ */
+@Entity
+@Table(name = "playlist_songs",
+        indexes = @Index(name = "idx_playlist_songs_position", columnList = "playlist_id, track_position"))
+@IdClass(PlaylistSong.Key.class)
+@Data
+public class PlaylistSong {
+
+    @Id
+    @Column(name = "playlist_id", nullable = false)
+    private Long playlistId;
+
+    @Id
+    @Column(name = "song_id", nullable = false)
+    private Long songId;
+
+    @Column(name = "track_position")
+    private Long position;
+
+    @Data
+    public static class Key implements Serializable {
+        private Long playlistId;
+        private Long songId;
+    }
+}
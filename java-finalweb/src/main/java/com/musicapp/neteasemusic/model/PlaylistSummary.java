@@ -0,0 +1,22 @@
+package com.musicapp.neteasemusic.model;
+
+import java.util.Date;
+
+/**
+ * 仪表盘歌单列表的字段投影，不涉及user和songs等懒加载关联
+ */
+public interface PlaylistSummary {
+
+    Long getId();
+
+    String getName();
+
+    String getCoverUrl();
+
+    Integer getTrackCount();
+
+    /**
+     * 本地歌曲快照最近一次刷新的时间，从未加载过歌曲时为null
+     */
+    Date getLastRefreshedAt();
+}
@@ -0,0 +1,22 @@
+package com.musicapp.neteasemusic.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PlaylistSyncResult {
+
+    private int added;
+    private int updated;
+    private int removed;
+    private int unchanged;
+
+    /**
+     * 本次同步中未发生变化的歌单ID，调用方可据此跳过歌曲刷新
+     */
+    private List<Long> unchangedPlaylistIds = new ArrayList<>();
+
+    private List<Playlist> playlists = new ArrayList<>();
+}
@@ -13,8 +13,8 @@ public class Song {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "netease_song_id", nullable = false, unique = true, length = 50)
-    private String neteaseSongId;
+    @Column(name = "netease_song_id", nullable = false, unique = true)
+    private Long neteaseSongId;
 
     @Column(name = "name", nullable = false, length = 200)
     private String name;
@@ -0,0 +1,24 @@
+package com.musicapp.neteasemusic.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class SongPage {
+
+    private List<SongSummary> songs = new ArrayList<>();
+
+    /**
+     * 请求下一页时作为after参数传回；没有更多歌曲时为null
+     */
+    private Long nextCursor;
+
+    private boolean hasMore;
+
+    /**
+     * 歌单的歌曲是否已从网易云加载过；为false时本地还没有歌曲快照，需要先请求/songs加载
+     */
+    private boolean loaded;
+}
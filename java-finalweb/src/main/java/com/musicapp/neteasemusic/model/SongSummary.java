@@ -0,0 +1,24 @@
+package com.musicapp.neteasemusic.model;
+
+/**
+ * 歌曲列表页面所需的字段投影，不读取歌词等大字段
+ */
+public interface SongSummary {
+
+    Long getId();
+
+    Long getNeteaseSongId();
+
+    String getName();
+
+    String getArtists();
+
+    String getAlbum();
+
+    Integer getDuration();
+
+    /**
+     * 歌曲在歌单中的位置，作为下一页的游标
+     */
+    Long getPosition();
+}
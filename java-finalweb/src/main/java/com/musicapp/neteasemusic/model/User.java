@@ -1,5 +1,6 @@
 package com.musicapp.neteasemusic.model;
 
+import com.musicapp.neteasemusic.security.services.UserPrincipalCacheInvalidator;
 import lombok.Data;
 import javax.persistence.*;
 import java.util.List;
@@ -7,6 +8,7 @@ import java.util.Date;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserPrincipalCacheInvalidator.class)
 @Data
 public class User {
 
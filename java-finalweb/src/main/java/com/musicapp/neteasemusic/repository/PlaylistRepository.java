@@ -1,21 +1,63 @@
 package com.musicapp.neteasemusic.repository;
 
 import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.PlaylistSummary;
+import com.musicapp.neteasemusic.model.SongSummary;
 import com.musicapp.neteasemusic.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PlaylistRepository extends JpaRepository<Playlist, Long> {
+public interface PlaylistRepository extends JpaRepository<Playlist, Long>, PlaylistRepositoryCustom {
 
     List<Playlist> findByUser(User user);
 
     Optional<Playlist> findByNeteasePlaylistId(String neteasePlaylistId);
 
+    List<Playlist> findByUserIdAndNeteasePlaylistIdIn(Long userId, Collection<String> neteasePlaylistIds);
+
     List<Playlist> findByUserId(Long userId);
 
     boolean existsByNeteasePlaylistId(String neteasePlaylistId);
+
+    /**
+     * 校验歌单归属并读取快照时间：歌单不存在或不属于该用户时返回空列表，尚未加载过歌曲时返回只含null的列表
+     */
+    @Query("SELECT p.snapshotAt FROM Playlist p WHERE p.id = :id AND p.user.id = :userId")
+    List<Date> findSnapshotAtByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * 删除歌单前先删除其歌曲关联行
+     */
+    @Modifying
+    @Query("DELETE FROM PlaylistSong ps WHERE ps.playlistId IN :playlistIds")
+    int deleteSongsByPlaylistIdIn(@Param("playlistIds") Collection<Long> playlistIds);
+
+    /**
+     * 以一条查询读取用户所有歌单的摘要，p.user.id直接使用外键列，不会关联users表
+     */
+    @Query("SELECT p.id AS id, p.name AS name, p.coverUrl AS coverUrl, p.trackCount AS trackCount, "
+            + "p.snapshotAt AS lastRefreshedAt FROM Playlist p WHERE p.user.id = :userId ORDER BY p.id")
+    List<PlaylistSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    /**
+     * 按歌单位置做游标分页，只读取列表展示需要的列
+     * 借助(playlist_id, track_position)索引直接定位到游标之后，翻页开销与页码无关
+     */
+    @Query(value = "SELECT s.id AS id, s.netease_song_id AS neteaseSongId, s.name AS name, "
+            + "s.artists AS artists, s.album AS album, s.duration AS duration, ps.track_position AS position "
+            + "FROM playlist_songs ps JOIN songs s ON s.id = ps.song_id "
+            + "WHERE ps.playlist_id = :playlistId AND ps.track_position > :after "
+            + "ORDER BY ps.track_position LIMIT :limit", nativeQuery = true)
+    List<SongSummary> findSongSummariesAfter(@Param("playlistId") Long playlistId,
+                                             @Param("after") long after,
+                                             @Param("limit") int limit);
 }
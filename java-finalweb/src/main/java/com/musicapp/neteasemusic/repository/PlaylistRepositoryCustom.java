@@ -0,0 +1,19 @@
+package com.musicapp.neteasemusic.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface PlaylistRepositoryCustom {
+
+    /**
+     * 将歌单的歌曲替换为给定顺序，只对新增、移除和移动的关联行执行JDBC批处理
+     * 返回实际写入的行数
+     */
+    int replaceSongs(Long playlistId, List<Long> songIds);
+
+    /**
+     * 为尚无歌曲关联的新歌单批量写入歌曲，所有歌单的关联行合并为JDBC批处理
+     * 返回写入的行数
+     */
+    int insertSongs(Map<Long, List<Long>> songIdsByPlaylist);
+}
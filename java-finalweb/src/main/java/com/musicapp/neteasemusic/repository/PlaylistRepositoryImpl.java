@@ -0,0 +1,232 @@
+package com.musicapp.neteasemusic.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PlaylistRepositoryImpl implements PlaylistRepositoryCustom {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistRepositoryImpl.class);
+
+    /**
+     * 相邻歌曲位置之间的初始间隔，插入或移动歌曲时在间隔内取值，间隔用尽时才整体重排
+     */
+    static final long POSITION_GAP = 1024;
+
+    private static final String SELECT_MEMBERSHIP_SQL =
+            "SELECT song_id, track_position FROM playlist_songs WHERE playlist_id = ?";
+
+    private static final String DELETE_ALL_SQL = "DELETE FROM playlist_songs WHERE playlist_id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM playlist_songs WHERE playlist_id = ? AND song_id = ?";
+
+    private static final String UPDATE_POSITION_SQL =
+            "UPDATE playlist_songs SET track_position = ? WHERE playlist_id = ? AND song_id = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO playlist_songs (playlist_id, song_id, track_position) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int replaceSongs(Long playlistId, List<Long> songIds) {
+        // 网易云歌单内歌曲不重复，这里同样去掉重复和空的歌曲ID
+        List<Long> target = new ArrayList<>(new LinkedHashSet<>(songIds));
+        target.remove(null);
+
+        Map<Long, Long> currentPositions = new HashMap<>();
+        int[] rowCount = new int[1];
+        jdbcTemplate.query(SELECT_MEMBERSHIP_SQL, rs -> {
+            long position = rs.getLong(2);
+            // 旧数据没有位置时记为null，后续会被当作需要移动的行写入新位置
+            currentPositions.put(rs.getLong(1), rs.wasNull() ? null : position);
+            rowCount[0]++;
+        }, playlistId);
+
+        if (rowCount[0] != currentPositions.size()) {
+            // 旧的关联表允许同一首歌出现多次，无法按歌曲ID逐行更新，整体重写一次
+            return rewriteAll(playlistId, target);
+        }
+
+        long[] positions = assignPositions(target, currentPositions);
+
+        List<Object[]> deletes = new ArrayList<>();
+        Set<Long> targetIds = new LinkedHashSet<>(target);
+        for (Long songId : currentPositions.keySet()) {
+            if (!targetIds.contains(songId)) {
+                deletes.add(new Object[]{playlistId, songId});
+            }
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < target.size(); i++) {
+            Long songId = target.get(i);
+            if (!currentPositions.containsKey(songId)) {
+                inserts.add(new Object[]{playlistId, songId, positions[i]});
+            } else {
+                Long current = currentPositions.get(songId);
+                if (current == null || current != positions[i]) {
+                    updates.add(new Object[]{positions[i], playlistId, songId});
+                }
+            }
+        }
+
+        batchUpdate(DELETE_SQL, deletes);
+        batchUpdate(UPDATE_POSITION_SQL, updates);
+        batchUpdate(INSERT_SQL, inserts);
+
+        logger.debug("Playlist {} membership: {} inserted, {} removed, {} moved, {} unchanged",
+                playlistId, inserts.size(), deletes.size(), updates.size(),
+                target.size() - inserts.size() - updates.size());
+        return inserts.size() + deletes.size() + updates.size();
+    }
+
+    @Override
+    public int insertSongs(Map<Long, List<Long>> songIdsByPlaylist) {
+        List<Object[]> inserts = new ArrayList<>();
+        for (Map.Entry<Long, List<Long>> entry : songIdsByPlaylist.entrySet()) {
+            List<Long> target = new ArrayList<>(new LinkedHashSet<>(entry.getValue()));
+            target.remove(null);
+            long[] positions = renumber(target.size());
+            for (int i = 0; i < target.size(); i++) {
+                inserts.add(new Object[]{entry.getKey(), target.get(i), positions[i]});
+            }
+        }
+        batchUpdate(INSERT_SQL, inserts);
+        logger.debug("Inserted {} membership rows for {} playlists", inserts.size(), songIdsByPlaylist.size());
+        return inserts.size();
+    }
+
+    /**
+     * 计算每首歌曲的新位置
+     * 新顺序中与旧位置保持递增的最长子序列原样保留，其余歌曲（新增或移动）在相邻保留行的位置间隔内取值；
+     * 间隔不够时整体按POSITION_GAP重新编号
+     */
+    static long[] assignPositions(List<Long> target, Map<Long, Long> currentPositions) {
+        int n = target.size();
+        Long[] oldPositions = new Long[n];
+        for (int i = 0; i < n; i++) {
+            oldPositions[i] = currentPositions.get(target.get(i));
+        }
+        boolean[] kept = longestIncreasingRun(oldPositions);
+
+        long[] positions = new long[n];
+        Long previous = null;
+        int i = 0;
+        while (i < n) {
+            if (kept[i]) {
+                positions[i] = oldPositions[i];
+                previous = positions[i];
+                i++;
+                continue;
+            }
+
+            int runEnd = i;
+            while (runEnd < n && !kept[runEnd]) {
+                runEnd++;
+            }
+            int runLength = runEnd - i;
+            Long next = runEnd < n ? oldPositions[runEnd] : null;
+
+            long lower;
+            long upper;
+            if (previous == null && next == null) {
+                lower = 0;
+                upper = (runLength + 1) * POSITION_GAP;
+            } else if (previous == null) {
+                upper = next;
+                lower = next - (runLength + 1) * POSITION_GAP;
+            } else if (next == null) {
+                lower = previous;
+                upper = previous + (runLength + 1) * POSITION_GAP;
+            } else {
+                lower = previous;
+                upper = next;
+            }
+
+            long step = (upper - lower) / (runLength + 1);
+            if (step < 1) {
+                return renumber(n);
+            }
+            for (int k = 0; k < runLength; k++) {
+                positions[i + k] = lower + step * (k + 1);
+            }
+            previous = positions[runEnd - 1];
+            i = runEnd;
+        }
+        return positions;
+    }
+
+    /**
+     * 在旧位置序列中找出严格递增的最长子序列，新增歌曲（旧位置为null）不参与
+     */
+    private static boolean[] longestIncreasingRun(Long[] oldPositions) {
+        int n = oldPositions.length;
+        int[] tails = new int[n];
+        int[] predecessors = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            if (oldPositions[i] == null) {
+                continue;
+            }
+            long value = oldPositions[i];
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (oldPositions[tails[mid]] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            predecessors[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        boolean[] kept = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = predecessors[i]) {
+            kept[i] = true;
+        }
+        return kept;
+    }
+
+    private static long[] renumber(int n) {
+        long[] positions = new long[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = (i + 1) * POSITION_GAP;
+        }
+        return positions;
+    }
+
+    private int rewriteAll(Long playlistId, List<Long> target) {
+        int deleted = jdbcTemplate.update(DELETE_ALL_SQL, playlistId);
+        long[] positions = renumber(target.size());
+        List<Object[]> inserts = new ArrayList<>(target.size());
+        for (int i = 0; i < target.size(); i++) {
+            inserts.add(new Object[]{playlistId, target.get(i), positions[i]});
+        }
+        batchUpdate(INSERT_SQL, inserts);
+        logger.debug("Playlist {} membership rewritten: {} removed, {} inserted", playlistId, deleted, inserts.size());
+        return deleted + inserts.size();
+    }
+
+    private void batchUpdate(String sql, List<Object[]> args) {
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, args);
+        }
+    }
+}
@@ -2,14 +2,19 @@ package com.musicapp.neteasemusic.repository;
 
 import com.musicapp.neteasemusic.model.Song;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.List;
 
 @Repository
-public interface SongRepository extends JpaRepository<Song, Long> {
+public interface SongRepository extends JpaRepository<Song, Long>, SongRepositoryCustom {
 
-    Optional<Song> findByNeteaseSongId(String neteaseSongId);
-
-    boolean existsByNeteaseSongId(String neteaseSongId);
+    /**
+     * 按track_position顺序读取歌单的全部歌曲
+     */
+    @Query(value = "SELECT s.* FROM playlist_songs ps JOIN songs s ON s.id = ps.song_id "
+            + "WHERE ps.playlist_id = :playlistId ORDER BY ps.track_position", nativeQuery = true)
+    List<Song> findByPlaylistIdInPositionOrder(@Param("playlistId") Long playlistId);
 }
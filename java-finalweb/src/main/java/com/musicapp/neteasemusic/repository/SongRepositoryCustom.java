@@ -0,0 +1,22 @@
+package com.musicapp.neteasemusic.repository;
+
+import com.musicapp.neteasemusic.model.Song;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface SongRepositoryCustom {
+
+    /**
+     * 以JDBC批处理插入歌曲，netease_song_id已存在的行保持不变，其他错误照常抛出
+     */
+    int[] batchInsertIfAbsent(List<Song> songs);
+
+    /**
+     * 按网易云歌曲ID查询本地歌曲ID，只读取两列，不加载歌曲实体
+     *
+     * @return 网易云歌曲ID到本地歌曲ID的映射，数据库中不存在的ID不在结果中
+     */
+    Map<Long, Long> findIdsByNeteaseSongIds(Collection<Long> neteaseSongIds);
+}
@@ -0,0 +1,76 @@
+package com.musicapp.neteasemusic.repository;
+
+import com.musicapp.neteasemusic.model.Song;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SongRepositoryImpl implements SongRepositoryCustom {
+
+    // 不用INSERT IGNORE：它会把截断、NOT NULL等错误也降级为警告，这里只跳过netease_song_id重复的行
+    private static final String INSERT_IF_ABSENT_SQL =
+            "INSERT INTO songs (netease_song_id, name, artists, album, duration, cover_url, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE id = id";
+
+    private static final String SELECT_IDS_SQL = "SELECT netease_song_id, id FROM songs WHERE netease_song_id IN (";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] batchInsertIfAbsent(List<Song> songs) {
+        if (songs.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        return jdbcTemplate.batchUpdate(INSERT_IF_ABSENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Song song = songs.get(i);
+                ps.setLong(1, song.getNeteaseSongId());
+                ps.setString(2, song.getName());
+                ps.setString(3, song.getArtists() != null ? song.getArtists() : "");
+                ps.setString(4, song.getAlbum());
+                if (song.getDuration() != null) {
+                    ps.setInt(5, song.getDuration());
+                } else {
+                    ps.setNull(5, Types.INTEGER);
+                }
+                ps.setString(6, song.getCoverUrl());
+                ps.setTimestamp(7, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return songs.size();
+            }
+        });
+    }
+
+    @Override
+    public Map<Long, Long> findIdsByNeteaseSongIds(Collection<Long> neteaseSongIds) {
+        if (neteaseSongIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        StringBuilder sql = new StringBuilder(SELECT_IDS_SQL.length() + neteaseSongIds.size() * 2);
+        sql.append(SELECT_IDS_SQL);
+        sql.append(String.join(",", Collections.nCopies(neteaseSongIds.size(), "?")));
+        sql.append(')');
+
+        Map<Long, Long> ids = new HashMap<>(neteaseSongIds.size() * 2);
+        jdbcTemplate.query(sql.toString(), rs -> {
+            ids.put(rs.getLong(1), rs.getLong(2));
+        }, neteaseSongIds.toArray());
+        return ids;
+    }
+}
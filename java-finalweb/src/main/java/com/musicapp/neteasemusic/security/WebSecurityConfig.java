@@ -4,6 +4,7 @@ import com.musicapp.neteasemusic.security.jwt.AuthEntryPointJwt;
 import com.musicapp.neteasemusic.security.jwt.AuthTokenFilter;
 import com.musicapp.neteasemusic.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,6 +18,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
 @Configuration
 @EnableWebSecurity
 @EnableGlobalMethodSecurity(prePostEnabled = true)
@@ -28,6 +32,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Value("${metrics.prometheus.allowed-ips:127.0.0.1,::1}")
+    private String[] prometheusAllowedIps;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
@@ -59,6 +66,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers("/api/auth/**").permitAll()
                 .antMatchers("/api/test/**").permitAll()
                 .antMatchers("/api/playlist/public/**").permitAll()
+                // 允许健康检查，指标只允许白名单内的Prometheus地址抓取
+                .antMatchers("/actuator/health").permitAll()
+                .antMatchers("/actuator/prometheus").access(prometheusAccess())
                 // 允许访问静态资源
                 .antMatchers("/css/**", "/js/**", "/images/**").permitAll()
                 // 允许访问公共页面
@@ -68,4 +78,16 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
     }
+
+    /**
+     * 按来源地址放行指标抓取，支持单个IP和CIDR网段；白名单为空时拒绝所有抓取请求
+     */
+    private String prometheusAccess() {
+        String expression = Arrays.stream(prometheusAllowedIps)
+                .map(String::trim)
+                .filter(ip -> !ip.isEmpty())
+                .map(ip -> "hasIpAddress('" + ip + "')")
+                .collect(Collectors.joining(" or "));
+        return expression.isEmpty() ? "denyAll" : expression;
+    }
 }
\ No newline at end of file
@@ -23,4 +23,15 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
+
+    /**
+     * 按用户ID加载，令牌中带有用户ID时使用
+     */
+    @Transactional
+    public UserDetailsImpl loadUserById(Long id) throws UsernameNotFoundException {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with id: " + id));
+
+        return UserDetailsImpl.build(user);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.musicapp.neteasemusic.security.services;
+
+import com.musicapp.neteasemusic.util.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 认证主体的进程内缓存
+ * 缓存的是从数据库加载的主体，按用户ID保存；令牌中的角色不直接采信，未命中时按令牌中的用户ID查询数据库，
+ * 不带用户ID的旧令牌按用户名查询。用户已删除、或用户名与令牌不一致时拒绝认证。
+ * 用户被更新或删除时由UserPrincipalCacheInvalidator调用invalidate，其他实例上的修改最迟在一个TTL后生效
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${security.principal-cache.ttl:300000}")
+    private long ttlMs;
+
+    private final Map<Long, CachedPrincipal> cache = new LinkedHashMap<Long, CachedPrincipal>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedPrincipal> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    // 每次失效加一；加载期间发生过失效时不写入缓存，避免把失效前读到的旧数据放回缓存
+    private long invalidations;
+
+    /**
+     * 根据已校验的令牌claims获取认证主体，用户不存在时抛出UsernameNotFoundException
+     */
+    public UserDetails getPrincipal(Claims claims) {
+        String username = claims.getSubject();
+        Object claimedId = claims.get(JwtUtils.CLAIM_USER_ID);
+        Long userId = claimedId instanceof Number ? ((Number) claimedId).longValue() : null;
+        long now = System.currentTimeMillis();
+
+        UserDetailsImpl principal = null;
+        long invalidationsBeforeLoad;
+        synchronized (cache) {
+            CachedPrincipal cached = userId != null ? cache.get(userId) : null;
+            if (cached != null && cached.expiresAt > now) {
+                principal = cached.principal;
+            }
+            invalidationsBeforeLoad = invalidations;
+        }
+
+        if (principal == null) {
+            principal = userId != null
+                    ? userDetailsService.loadUserById(userId)
+                    : (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+            synchronized (cache) {
+                if (invalidations == invalidationsBeforeLoad) {
+                    cache.put(principal.getId(), new CachedPrincipal(principal, now + ttlMs));
+                }
+            }
+        }
+
+        // 用户改名后，按旧用户名签发的令牌不再有效
+        if (!principal.getUsername().equals(username)) {
+            throw new UsernameNotFoundException("Token subject does not match user " + principal.getId());
+        }
+        return principal;
+    }
+
+    /**
+     * 使指定用户的缓存失效
+     */
+    public void invalidate(Long userId) {
+        synchronized (cache) {
+            invalidations++;
+            cache.remove(userId);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        synchronized (cache) {
+            invalidations++;
+            cache.clear();
+        }
+    }
+
+    private static class CachedPrincipal {
+        private final UserDetailsImpl principal;
+        private final long expiresAt;
+
+        CachedPrincipal(UserDetailsImpl principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
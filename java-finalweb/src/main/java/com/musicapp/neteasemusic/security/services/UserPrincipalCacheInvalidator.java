@@ -0,0 +1,38 @@
+package com.musicapp.neteasemusic.security.services;
+
+import com.musicapp.neteasemusic.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * User实体的监听器：用户被更新或删除时使认证主体缓存失效
+ * 挂在实体上，任何保存用户的路径（同步时更新Cookie、以后的修改密码和角色）都会经过这里；
+ * 在事务中时等提交后再失效，避免并发请求在提交前从数据库读到旧数据重新放入缓存
+ */
+@Component
+public class UserPrincipalCacheInvalidator {
+
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        Long userId = user.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            principalCache.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                principalCache.invalidate(userId);
+            }
+        });
+    }
+}
@@ -0,0 +1,315 @@
+package com.musicapp.neteasemusic.service;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.service.export.ExportFormat;
+import com.musicapp.neteasemusic.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 导出文件的本地磁盘缓存
+ * 缓存键由歌单ID、歌曲列表内容和导出格式计算得出，内容不变时键不变；同一个键同时只渲染一次，
+ * 并发的未命中请求等待并共享这次渲染的结果。缓存总大小有上限，超出时按最近最少使用淘汰。
+ * 取得的文件以租约的形式返回，租约释放前条目即使被淘汰或替换，文件也不会被删除。
+ * ETag不使用缓存键，而是由歌单的本地快照字段计算，不必加载歌曲即可判断客户端的文件是否仍然有效
+ */
+@Service
+public class ExportCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportCacheService.class);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Value("${export.cache.dir:${java.io.tmpdir}/netease-music-export-cache}")
+    private String cacheDir;
+
+    @Value("${export.cache.max-size:536870912}")
+    private long maxSizeBytes;
+
+    private Path cachePath;
+
+    private long currentSizeBytes;
+
+    private final Map<String, CachedArtifact> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final SingleFlight<String, CachedArtifact> renders = new SingleFlight<>();
+
+    /**
+     * 导出内容的渲染逻辑
+     */
+    public interface ArtifactWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        cachePath = Paths.get(cacheDir);
+        Files.createDirectories(cachePath);
+
+        // 索引只保存在内存中，启动时清理上次运行遗留的文件
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cachePath)) {
+            for (Path file : files) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * 计算缓存键：歌单ID + 歌曲列表版本 + 格式
+     * 歌曲列表版本是歌单名称、描述以及按顺序排列的每首歌曲的ID、名称、歌手、专辑和时长的摘要，
+     * 导出文件的内容只由这些字段决定，任何一项变化都会得到新的键
+     */
+    public String cacheKey(Playlist playlist, List<Song> songs, ExportFormat format) {
+        MessageDigest digest = sha256();
+        update(digest, playlist.getName());
+        update(digest, playlist.getDescription());
+        for (Song song : songs) {
+            update(digest, song.getNeteaseSongId());
+            update(digest, song.getName());
+            update(digest, song.getArtists());
+            update(digest, song.getAlbum());
+            update(digest, song.getDuration() != null ? Long.valueOf(song.getDuration()) : null);
+        }
+        return playlist.getId() + "-" + hex(digest.digest()) + "-" + format.getName();
+    }
+
+    /**
+     * 取摘要前16字节即可避免冲突，同时让键和ETag保持简短
+     */
+    private static String hex(byte[] hash) {
+        StringBuilder version = new StringBuilder(32);
+        for (int i = 0; i < 16; i++) {
+            version.append(HEX[(hash[i] >> 4) & 0xF]).append(HEX[hash[i] & 0xF]);
+        }
+        return version.toString();
+    }
+
+    /**
+     * 由歌单的本地快照计算弱ETag：快照时间、快照时的歌曲数和网易云更新时间，以及写入文件的歌单名称和描述
+     * 快照不变时歌单的歌曲关联不变；txt等格式带有渲染时间，同一ETag的文件并不逐字节相同，因此使用弱ETag
+     */
+    public String snapshotETag(Playlist playlist, ExportFormat format) {
+        MessageDigest digest = sha256();
+        update(digest, playlist.getId());
+        update(digest, playlist.getName());
+        update(digest, playlist.getDescription());
+        update(digest, playlist.getSnapshotAt() != null ? Long.valueOf(playlist.getSnapshotAt().getTime()) : null);
+        update(digest, playlist.getSnapshotTrackCount() != null ? Long.valueOf(playlist.getSnapshotTrackCount()) : null);
+        update(digest, playlist.getSnapshotUpdateTime());
+        update(digest, format.getName());
+        return "W/\"" + hex(digest.digest()) + "\"";
+    }
+
+    /**
+     * 获取缓存的导出文件，未命中时渲染到临时文件后原子地放入缓存
+     * 调用方持有租约直到文件发送完毕
+     */
+    public Lease getOrRender(String key, ArtifactWriter writer) throws IOException {
+        while (true) {
+            synchronized (entries) {
+                CachedArtifact cached = entries.get(key);
+                if (cached != null && Files.exists(cached.file)) {
+                    hits.incrementAndGet();
+                    cached.leases++;
+                    return new Lease(cached);
+                }
+            }
+
+            CachedArtifact artifact = renders.execute(key, () -> render(key, writer));
+            synchronized (entries) {
+                // 已淘汰且没有租约的文件已被删除，否则文件仍然存在
+                if (!artifact.retired || artifact.leases > 0) {
+                    artifact.leases++;
+                    return new Lease(artifact);
+                }
+            }
+            // 渲染完成后、取得租约前条目已被淘汰，重新获取
+        }
+    }
+
+    private CachedArtifact render(String key, ArtifactWriter writer) throws IOException {
+        misses.incrementAndGet();
+
+        // 每次渲染使用独立的文件名，被替换的旧文件可以在其租约释放后单独删除
+        String fileName = key + "." + UUID.randomUUID();
+        Path file = cachePath.resolve(fileName + ".export");
+        Path partFile = cachePath.resolve(fileName + ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(partFile)) {
+                writer.write(out);
+            }
+            Files.move(partFile, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(partFile);
+            throw e;
+        }
+
+        CachedArtifact artifact = new CachedArtifact(file, Files.size(file));
+        synchronized (entries) {
+            CachedArtifact previous = entries.put(key, artifact);
+            if (previous != null) {
+                currentSizeBytes -= previous.size;
+                retire(previous);
+            }
+            currentSizeBytes += artifact.size;
+            evictIfNecessary(key);
+        }
+        return artifact;
+    }
+
+    /**
+     * 缓存的命中、未命中、淘汰次数以及当前占用
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        synchronized (entries) {
+            stats.put("entries", (long) entries.size());
+            stats.put("sizeBytes", currentSizeBytes);
+        }
+        stats.put("maxSizeBytes", maxSizeBytes);
+        return stats;
+    }
+
+    /**
+     * 按最近最少使用淘汰，刚写入的条目即使单独超出上限也保留，以便本次请求能够发送
+     */
+    private void evictIfNecessary(String currentKey) {
+        Iterator<Map.Entry<String, CachedArtifact>> iterator = entries.entrySet().iterator();
+        while (currentSizeBytes > maxSizeBytes && iterator.hasNext()) {
+            Map.Entry<String, CachedArtifact> eldest = iterator.next();
+            if (eldest.getKey().equals(currentKey)) {
+                continue;
+            }
+            iterator.remove();
+            currentSizeBytes -= eldest.getValue().size;
+            evictions.incrementAndGet();
+            retire(eldest.getValue());
+            logger.debug("Evicted export cache entry {}", eldest.getKey());
+        }
+    }
+
+    /**
+     * 条目已移出缓存，没有租约时立即删除文件，否则等最后一个租约释放时删除
+     * 调用时须持有entries的锁
+     */
+    private void retire(CachedArtifact artifact) {
+        artifact.retired = true;
+        if (artifact.leases == 0) {
+            deleteQuietly(artifact.file);
+        }
+    }
+
+    private void release(CachedArtifact artifact) {
+        synchronized (entries) {
+            artifact.leases--;
+            if (artifact.retired && artifact.leases == 0) {
+                deleteQuietly(artifact.file);
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        // 分隔符避免相邻字段拼接后产生歧义
+        digest.update((byte) 0);
+    }
+
+    private static void update(MessageDigest digest, Long value) {
+        if (value != null) {
+            long v = value;
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                digest.update((byte) (v >>> shift));
+            }
+        }
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete export cache file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * 缓存文件的租约，持有期间文件不会被删除；只能释放一次
+     */
+    public class Lease implements AutoCloseable {
+        private final CachedArtifact artifact;
+        private boolean released;
+
+        Lease(CachedArtifact artifact) {
+            this.artifact = artifact;
+        }
+
+        public Path getFile() {
+            return artifact.file;
+        }
+
+        public long getSize() {
+            return artifact.size;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(artifact);
+            }
+        }
+    }
+
+    private static class CachedArtifact {
+        private final Path file;
+        private final long size;
+        // 以下字段由entries的锁保护
+        private int leases;
+        private boolean retired;
+
+        CachedArtifact(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.musicapp.neteasemusic.service;
+
+import com.musicapp.neteasemusic.model.ExportJob;
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.service.export.ExportFormat;
+import com.musicapp.neteasemusic.util.ExportJobRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步导出任务
+ * 任务由有界线程池渲染到本地暂存目录，客户端轮询状态后下载；每个用户同时进行的任务数有上限，
+ * 生成的文件在过期后由定时任务清理
+ */
+@Service
+public class ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    private static final DateTimeFormatter FILE_NAME_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private PlaylistService playlistService;
+
+    @Autowired
+    private PlaylistSongsLoader playlistSongsLoader;
+
+    @Autowired
+    private ExportMetrics exportMetrics;
+
+    @Value("${export.jobs.spool-dir:${java.io.tmpdir}/netease-music-export}")
+    private String spoolDir;
+
+    @Value("${export.jobs.workers:4}")
+    private int workers;
+
+    @Value("${export.jobs.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${export.jobs.per-user-limit:2}")
+    private int perUserLimit;
+
+    @Value("${export.jobs.ttl:3600000}")
+    private long ttlMs;
+
+    @Value("${export.jobs.retry-after:30}")
+    private long retryAfterSeconds;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    private final Map<Long, AtomicInteger> activeJobsPerUser = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    private Path spoolPath;
+
+    @PostConstruct
+    public void init() throws IOException {
+        spoolPath = Paths.get(spoolDir);
+        Files.createDirectories(spoolPath);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "export-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 创建导出全部歌单的任务
+     */
+    public ExportJob submitAllPlaylistsJob(Long userId, String username, List<Playlist> playlists, String cookie,
+                                           ExportFormat format) {
+        ExportJob job = newJob(userId, null,
+                "网易云音乐_歌单导出_" + timestamp() + "." + format.getFileExtension());
+        job.setContentType(format.getContentType());
+        job.setTotalPlaylists(playlists.size());
+        return submit(job, out -> {
+            ExportMetrics.Recording recording = exportMetrics.start(format.getName(), "job");
+            ExportFormat.AllPlaylistsWriter writer = format.openAll(username, playlists.size(), recording.wrap(out));
+            playlistSongsLoader.loadInOrder(playlists, cookie, false, (playlist, songs, error) -> {
+                if (error != null) {
+                    writer.writeError(playlist, error.getMessage());
+                    job.setFailedPlaylists(job.getFailedPlaylists() + 1);
+                } else {
+                    writer.writePlaylist(playlist, songs);
+                    recording.addSongs(songs.size());
+                }
+                job.setCompletedPlaylists(job.getCompletedPlaylists() + 1);
+            });
+            writer.finish();
+            recording.finish();
+        });
+    }
+
+    /**
+     * 创建导出单个歌单的任务
+     */
+    public ExportJob submitPlaylistJob(Long userId, Playlist playlist, String cookie, ExportFormat format) {
+        ExportJob job = newJob(userId, playlist.getId(),
+                exportService.getExportFileName(playlist.getName(), format.getFileExtension()));
+        job.setContentType(format.getContentType());
+        job.setTotalPlaylists(1);
+        return submit(job, out -> {
+            ExportMetrics.Recording recording = exportMetrics.start(format.getName(), "job");
+            List<Song> songs = playlistService.getPlaylistSongs(playlist.getId(), cookie);
+            OutputStream meteredOut = recording.wrap(out);
+            format.write(playlist, songs.iterator(), songs.size(), meteredOut);
+            meteredOut.flush();
+            recording.addSongs(songs.size());
+            recording.finish();
+            job.setCompletedPlaylists(1);
+        });
+    }
+
+    /**
+     * 查询任务，只返回属于该用户的任务
+     */
+    public Optional<ExportJob> getJob(String jobId, Long userId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null || !job.getUserId().equals(userId)) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * 清理过期的任务和导出文件
+     */
+    @Scheduled(fixedDelayString = "${export.jobs.cleanup-interval:60000}")
+    public void cleanupExpiredJobs() {
+        long now = System.currentTimeMillis();
+        Iterator<ExportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ExportJob job = iterator.next();
+            if (job.getExpiresAt() != null && job.getExpiresAt().getTime() <= now) {
+                iterator.remove();
+                deleteQuietly(job.getFile());
+                logger.debug("Export job {} expired and was cleaned up", job.getId());
+            }
+        }
+    }
+
+    private interface JobBody {
+        void render(OutputStream out) throws IOException;
+    }
+
+    private ExportJob newJob(Long userId, Long playlistId, String fileName) {
+        ExportJob job = new ExportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setUserId(userId);
+        job.setPlaylistId(playlistId);
+        job.setFileName(fileName);
+        job.setCreatedAt(new Date());
+        return job;
+    }
+
+    private ExportJob submit(ExportJob job, JobBody body) {
+        AtomicInteger active = activeJobsPerUser.computeIfAbsent(job.getUserId(), id -> new AtomicInteger());
+        if (active.incrementAndGet() > perUserLimit) {
+            active.decrementAndGet();
+            throw new ExportJobRejectedException("Too many export jobs in progress, please wait for them to finish",
+                    retryAfterSeconds, false);
+        }
+
+        jobs.put(job.getId(), job);
+        try {
+            // 任务在后台线程执行时仍以提交任务的用户身份访问上游，便于按用户限流
+            executor.execute(new DelegatingSecurityContextRunnable(() -> run(job, body, active)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            active.decrementAndGet();
+            throw new ExportJobRejectedException("Export queue is full, please try again later", retryAfterSeconds, true);
+        }
+        return job;
+    }
+
+    private void run(ExportJob job, JobBody body, AtomicInteger active) {
+        job.setStatus(ExportJob.Status.RUNNING);
+        Path partFile = spoolPath.resolve(job.getId() + ".part");
+        Path file = spoolPath.resolve(job.getId() + ".export");
+        try {
+            try (OutputStream out = Files.newOutputStream(partFile)) {
+                body.render(out);
+            }
+            Files.move(partFile, file, StandardCopyOption.REPLACE_EXISTING);
+            job.setFile(file);
+            job.setStatus(ExportJob.Status.COMPLETED);
+        } catch (Exception e) {
+            logger.warn("Export job {} failed: {}", job.getId(), e.getMessage());
+            deleteQuietly(partFile);
+            job.setErrorMessage(e.getMessage());
+            job.setStatus(ExportJob.Status.FAILED);
+        } finally {
+            Date finishedAt = new Date();
+            job.setFinishedAt(finishedAt);
+            job.setExpiresAt(new Date(finishedAt.getTime() + ttlMs));
+            active.decrementAndGet();
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete export artifact {}: {}", file, e.getMessage());
+        }
+    }
+
+    private String timestamp() {
+        return LocalDateTime.now().format(FILE_NAME_TIME_FORMAT);
+    }
+}
@@ -0,0 +1,119 @@
+package com.musicapp.neteasemusic.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导出路径的监控指标，按导出格式和导出方式（single、all、zip、job）打标签：
+ * 导出字节数、每秒导出歌曲数、首字节时间和总耗时
+ */
+@Component
+public class ExportMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 开始记录一次导出，计时从调用时开始
+     */
+    public Recording start(String format, String mode) {
+        return new Recording(format, mode, System.nanoTime());
+    }
+
+    /**
+     * 一次导出的记录，线程安全性与所包装的输出流相同
+     */
+    public class Recording {
+        private final String format;
+        private final String mode;
+        private final long startNanos;
+        private long bytes;
+        private int songs;
+        private boolean firstByteRecorded;
+        private boolean finished;
+
+        private Recording(String format, String mode, long startNanos) {
+            this.format = format;
+            this.mode = mode;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * 包装输出流，统计写出的字节数，并在第一次写出时记录首字节时间
+         */
+        public OutputStream wrap(OutputStream out) {
+            return new FilterOutputStream(out) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    written(1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    written(len);
+                }
+            };
+        }
+
+        public void addSongs(int count) {
+            songs += count;
+        }
+
+        /**
+         * 结束记录，重复调用只生效一次
+         */
+        public void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            Timer.builder("netease.export.duration")
+                    .description("Total export time")
+                    .tag("format", format)
+                    .tag("mode", mode)
+                    .register(meterRegistry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("netease.export.size")
+                    .description("Exported bytes per export")
+                    .baseUnit("bytes")
+                    .tag("format", format)
+                    .tag("mode", mode)
+                    .register(meterRegistry)
+                    .record(bytes);
+            if (songs > 0 && elapsedNanos > 0) {
+                DistributionSummary.builder("netease.export.throughput")
+                        .description("Exported songs per second")
+                        .baseUnit("songs")
+                        .tag("format", format)
+                        .tag("mode", mode)
+                        .register(meterRegistry)
+                        .record(songs * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+            }
+        }
+
+        private void written(long length) {
+            if (!firstByteRecorded && length > 0) {
+                firstByteRecorded = true;
+                Timer.builder("netease.export.time-to-first-byte")
+                        .description("Time from export start to the first byte written")
+                        .tag("format", format)
+                        .tag("mode", mode)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+            bytes += length;
+        }
+    }
+}
@@ -2,73 +2,109 @@ package com.musicapp.neteasemusic.service;
 
 import com.musicapp.neteasemusic.model.Playlist;
 import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.service.export.ExportFormat;
+import com.musicapp.neteasemusic.service.export.TxtExportFormat;
+import com.musicapp.neteasemusic.util.Utf8ByteWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class ExportService {
 
+    private static final DateTimeFormatter FILE_NAME_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    @Autowired
+    private TxtExportFormat txtExportFormat;
+
+    @Value("${export.zip.compression-level:6}")
+    private int zipCompressionLevel;
+
     /**
      * 将歌单导出为txt格式
      */
     public byte[] exportPlaylistToTxt(Playlist playlist, List<Song> songs) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             OutputStreamWriter writer = new OutputStreamWriter(baos, StandardCharsets.UTF_8)) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        txtExportFormat.write(playlist, songs.iterator(), songs.size(), baos);
+        return baos.toByteArray();
+    }
 
-            // 写入歌单信息
-            writer.write("===== 歌单信息 =====\n");
-            writer.write("歌单名称: " + playlist.getName() + "\n");
-            if (playlist.getDescription() != null && !playlist.getDescription().isEmpty()) {
-                writer.write("歌单描述: " + playlist.getDescription() + "\n");
-            }
-            writer.write("歌曲数量: " + songs.size() + "\n");
-            writer.write("导出时间: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()) + "\n");
-            writer.write("==================\n\n");
+    /**
+     * 获取导出文件名
+     */
+    public String getExportFileName(String playlistName) {
+        return getExportFileName(playlistName, "txt");
+    }
 
-            // 写入歌曲列表
-            writer.write("===== 歌曲列表 =====\n");
-            for (int i = 0; i < songs.size(); i++) {
-                Song song = songs.get(i);
-                writer.write(String.format("%d. %s - %s\n", i + 1, song.getName(), song.getArtists()));
-                if (song.getAlbum() != null && !song.getAlbum().isEmpty()) {
-                    writer.write("   专辑: " + song.getAlbum() + "\n");
-                }
-                if (song.getDuration() != null) {
-                    writer.write("   时长: " + formatDuration(song.getDuration()) + "\n");
-                }
-                writer.write("\n");
-            }
-            writer.write("==================\n");
-            writer.flush();
+    /**
+     * 获取指定扩展名的导出文件名
+     */
+    public String getExportFileName(String playlistName, String extension) {
+        // 移除文件名中可能的非法字符
+        String safeName = playlistName.replaceAll("[\\/:*?\"<>|]", "_");
+        String timestamp = LocalDateTime.now().format(FILE_NAME_TIME_FORMAT);
+        return safeName + "_歌单导出_" + timestamp + "." + extension;
+    }
 
-            return baos.toByteArray();
-        }
+    /**
+     * 创建直接写入输出流的ZIP压缩流，压缩级别由配置决定
+     */
+    public ZipOutputStream openZip(OutputStream outputStream) {
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        zip.setLevel(zipCompressionLevel);
+        return zip;
     }
 
     /**
-     * 格式化时长（毫秒转换为分:秒）
+     * 将单个歌单按指定格式写为ZIP中的一个条目，边渲染边压缩，不在内存中缓存整个条目
      */
-    private String formatDuration(int milliseconds) {
-        int totalSeconds = milliseconds / 1000;
-        int minutes = totalSeconds / 60;
-        int seconds = totalSeconds % 60;
-        return String.format("%d:%02d", minutes, seconds);
+    public void writeZipEntry(ZipOutputStream zip, Set<String> entryNames, Playlist playlist,
+                              List<Song> songs, ExportFormat format) throws IOException {
+        String entryName = uniqueEntryName(entryNames,
+                getExportFileName(playlist.getName(), format.getFileExtension()));
+        zip.putNextEntry(new ZipEntry(entryName));
+        format.write(playlist, songs.iterator(), songs.size(), zip);
+        zip.closeEntry();
     }
 
     /**
-     * 获取导出文件名
+     * 歌单加载失败时写入一个说明失败原因的txt条目
      */
-    public String getExportFileName(String playlistName) {
-        // 移除文件名中可能的非法字符
-        String safeName = playlistName.replaceAll("[\\/:*?\"<>|]", "_");
-        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-        return safeName + "_歌单导出_" + timestamp + ".txt";
+    public void writeZipErrorEntry(ZipOutputStream zip, Set<String> entryNames, Playlist playlist,
+                                   String message) throws IOException {
+        String entryName = uniqueEntryName(entryNames, getExportFileName(playlist.getName() + "_加载失败", "txt"));
+        zip.putNextEntry(new ZipEntry(entryName));
+        Utf8ByteWriter writer = new Utf8ByteWriter(zip);
+        TxtExportFormat.writePlaylistError(writer, playlist, message);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    /**
+     * 同名歌单会生成相同的文件名，ZIP中条目名不能重复，重复时在扩展名前追加序号
+     */
+    private String uniqueEntryName(Set<String> entryNames, String fileName) {
+        if (entryNames.add(fileName)) {
+            return fileName;
+        }
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        String extension = dot > 0 ? fileName.substring(dot) : "";
+        for (int i = 2; ; i++) {
+            String candidate = base + "_" + i + extension;
+            if (entryNames.add(candidate)) {
+                return candidate;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,35 +1,84 @@
 package com.musicapp.neteasemusic.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.musicapp.neteasemusic.model.Playlist;
 import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.util.NeteaseHttpGateway;
+import com.musicapp.neteasemusic.util.NeteaseResponseParser;
+import com.musicapp.neteasemusic.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
-import okhttp3.*;
+import okhttp3.Request;
+import okhttp3.Response;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class NeteaseMusicApiService {
 
+    private static final Logger logger = LoggerFactory.getLogger(NeteaseMusicApiService.class);
+
     @Value("${netease.api.url}")
     private String neteaseApiUrl;
 
-    @Value("${netease.api.timeout}")
-    private int timeout;
+    @Value("${netease.api.page-size:1000}")
+    private int pageSize;
 
-    private final OkHttpClient client;
-    private final ObjectMapper objectMapper;
+    @Value("${netease.api.page-concurrency:4}")
+    private int pageConcurrency;
 
-    public NeteaseMusicApiService() {
-        this.client = new OkHttpClient.Builder()
-                .connectTimeout(timeout, java.util.concurrent.TimeUnit.MILLISECONDS)
-                .readTimeout(timeout, java.util.concurrent.TimeUnit.MILLISECONDS)
-                .build();
-        this.objectMapper = new ObjectMapper();
+    @Value("${netease.api.page-fetch-threads:16}")
+    private int pageFetchThreads;
+
+    @Autowired
+    private NeteaseHttpGateway httpGateway;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ExecutorService pageFetchExecutor;
+
+    // 同一账号对同一歌单的并发拉取合并为一次上游调用
+    private final SingleFlight<String, List<Song>> playlistTracksFlight = new SingleFlight<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "netease-page-fetch-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // 分页请求沿用调用方的认证信息，上游请求据此按用户限流
+        this.pageFetchExecutor = new DelegatingSecurityContextExecutorService(
+                Executors.newFixedThreadPool(Math.max(1, pageFetchThreads), threadFactory));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (pageFetchExecutor != null) {
+            pageFetchExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -43,83 +92,192 @@ public class NeteaseMusicApiService {
                 .addHeader("Referer", "https://music.163.com/")
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = httpGateway.execute("user-playlist", request)) {
             if (!response.isSuccessful()) {
                 throw new IOException("Unexpected response: " + response);
             }
 
-            String responseBody = response.body().string();
-            JsonNode rootNode = objectMapper.readTree(responseBody);
-            JsonNode playlistArray = rootNode.path("playlist");
-
-            List<Playlist> playlists = new ArrayList<>();
-            if (playlistArray.isArray()) {
-                for (JsonNode node : playlistArray) {
-                    Playlist playlist = new Playlist();
-                    playlist.setNeteasePlaylistId(node.path("id").asText());
-                    playlist.setName(node.path("name").asText());
-                    playlist.setDescription(node.path("description").asText());
-                    playlist.setCoverUrl(node.path("coverImgUrl").asText());
-                    playlist.setTrackCount(node.path("trackCount").asInt());
-                    playlists.add(playlist);
-                }
-            }
-            return playlists;
+            // 直接从响应流解析歌单，不生成完整的响应字符串
+            return NeteaseResponseParser.readPlaylists(response.body().byteStream());
         }
     }
 
     /**
-     * 获取歌单详情和歌曲列表
+     * 获取歌单详情（名称、描述、封面、歌曲数量和更新时间），不包含歌曲
      */
-    public List<Song> getPlaylistTracks(String playlistId, String cookie) throws IOException {
-        String url = neteaseApiUrl + "/playlist/track/all?id=" + playlistId + "&limit=1000&offset=0";
+    public Playlist getPlaylistDetail(String playlistId, String cookie) throws IOException {
+        String url = neteaseApiUrl + "/playlist/detail?id=" + playlistId;
         Request request = new Request.Builder()
                 .url(url)
                 .addHeader("Cookie", cookie)
                 .addHeader("Referer", "https://music.163.com/")
                 .build();
 
-        try (Response response = client.newCall(request).execute()) {
+        try (Response response = httpGateway.execute("playlist-detail", request)) {
             if (!response.isSuccessful()) {
                 throw new IOException("Unexpected response: " + response);
             }
 
-            String responseBody = response.body().string();
-            JsonNode rootNode = objectMapper.readTree(responseBody);
-            JsonNode songsArray = rootNode.path("songs");
-
-            List<Song> songs = new ArrayList<>();
-            if (songsArray.isArray()) {
-                for (JsonNode node : songsArray) {
-                    Song song = new Song();
-                    song.setNeteaseSongId(node.path("id").asText());
-                    song.setName(node.path("name").asText());
-
-                    // 处理艺术家信息
-                    StringBuilder artists = new StringBuilder();
-                    JsonNode artistsArray = node.path("ar");
-                    if (artistsArray.isArray()) {
-                        for (int i = 0; i < artistsArray.size(); i++) {
-                            if (i > 0) {
-                                artists.append("/");
-                            }
-                            artists.append(artistsArray.get(i).path("name").asText());
-                        }
-                    }
-                    song.setArtists(artists.toString());
+            Playlist playlist = NeteaseResponseParser.readPlaylistDetail(response.body().byteStream());
+            if (playlist == null || playlist.getNeteasePlaylistId().isEmpty()) {
+                throw new IOException("Playlist " + playlistId + " not found on Netease");
+            }
+            return playlist;
+        }
+    }
 
-                    // 处理专辑信息
-                    JsonNode albumNode = node.path("al");
-                    song.setAlbum(albumNode.path("name").asText());
-                    song.setCoverUrl(albumNode.path("picUrl").asText());
+    /**
+     * 获取歌单详情和歌曲列表
+     */
+    public List<Song> getPlaylistTracks(String playlistId, String cookie) throws IOException {
+        return getPlaylistTracks(playlistId, null, cookie);
+    }
+
+    /**
+     * 获取歌单的全部歌曲
+     * 同一账号的多个请求同时拉取同一歌单时共享一次上游调用和解析结果，每个调用方拿到各自的列表副本；
+     * 不同账号的请求不合并，避免拿到以其他用户身份拉取的私有歌单或其他用户的认证错误
+     */
+    public List<Song> getPlaylistTracks(String playlistId, Integer trackCount, String cookie) throws IOException {
+        List<Song> songs = playlistTracksFlight.execute(playlistId + "\0" + accountKey(cookie),
+                () -> fetchPlaylistTracks(playlistId, trackCount, cookie));
+        return new ArrayList<>(songs);
+    }
 
-                    // 处理时长
-                    song.setDuration(node.path("dt").asInt());
+    /**
+     * 歌单歌曲拉取的合并统计
+     */
+    public Map<String, Long> getCoalescingStats() {
+        return playlistTracksFlight.getStats();
+    }
+
+    /**
+     * 分页获取歌单的全部歌曲
+     * 根据trackCount计算页数并在单个歌单内限制并发地拉取各页，结果按原顺序拼接；
+     * trackCount未知时逐页拉取直到返回不足一页。trackCount来自上次同步，歌单之后可能又加了歌曲，
+     * 因此计划的最后一页是满页时继续逐页拉取，直到返回不足一页
+     */
+    private List<Song> fetchPlaylistTracks(String playlistId, Integer trackCount, String cookie) throws IOException {
+        if (trackCount == null || trackCount <= 0) {
+            return fetchPagesSequentially(playlistId, 0, new ArrayList<>(), cookie);
+        }
+
+        int pageCount = (trackCount + pageSize - 1) / pageSize;
+        if (pageCount == 1) {
+            return fetchPagesSequentially(playlistId, 0, new ArrayList<>(pageSize), cookie);
+        }
 
-                    songs.add(song);
+        // 同一歌单同时在途的页数不超过pageConcurrency
+        Semaphore permits = new Semaphore(Math.max(1, pageConcurrency));
+        List<Future<List<Song>>> pages = new ArrayList<>(pageCount);
+        try {
+            for (int page = 0; page < pageCount; page++) {
+                final int offset = page * pageSize;
+                permits.acquire();
+                try {
+                    pages.add(pageFetchExecutor.submit(() -> {
+                        try {
+                            return fetchTrackPage(playlistId, offset, cookie);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
                 }
             }
+
+            List<Song> songs = new ArrayList<>(trackCount);
+            int lastPageSize = 0;
+            for (Future<List<Song>> page : pages) {
+                List<Song> pageSongs = page.get();
+                songs.addAll(pageSongs);
+                lastPageSize = pageSongs.size();
+            }
+            if (lastPageSize < pageSize) {
+                return songs;
+            }
+            return fetchPagesSequentially(playlistId, pageCount * pageSize, songs, cookie);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching tracks of playlist " + playlistId, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to fetch tracks of playlist " + playlistId, cause);
+        } finally {
+            for (Future<List<Song>> page : pages) {
+                page.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 从offset开始逐页拉取并追加到songs，直到返回不足一页
+     */
+    private List<Song> fetchPagesSequentially(String playlistId, int offset, List<Song> songs, String cookie)
+            throws IOException {
+        while (true) {
+            List<Song> page = fetchTrackPage(playlistId, offset, cookie);
+            songs.addAll(page);
+            if (page.size() < pageSize) {
+                return songs;
+            }
+            offset += pageSize;
+        }
+    }
+
+    /**
+     * 拉取歌单的一页歌曲，并按结果记录该页的耗时（包括限流排队、重试和流式解析）
+     */
+    private List<Song> fetchTrackPage(String playlistId, int offset, String cookie) throws IOException {
+        String url = neteaseApiUrl + "/playlist/track/all?id=" + playlistId + "&limit=" + pageSize + "&offset=" + offset;
+        Request request = new Request.Builder()
+                .url(url)
+                .addHeader("Cookie", cookie)
+                .addHeader("Referer", "https://music.163.com/")
+                .build();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try (Response response = httpGateway.execute("playlist-tracks", request)) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected response: " + response);
+            }
+
+            // 直接从响应流解析歌曲，不生成完整的响应字符串和JsonNode树
+            List<Song> songs = NeteaseResponseParser.readSongs(response.body().byteStream());
+            outcome = "success";
+
+            logger.debug("Fetched page offset={} of playlist {}: {} tracks", offset, playlistId, songs.size());
             return songs;
+        } finally {
+            sample.stop(Timer.builder("netease.playlist.page.fetch")
+                    .description("Playlist track page fetch duration")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 用Cookie的摘要区分账号，合并键中不保存Cookie原文
+     */
+    private static String accountKey(String cookie) {
+        if (cookie == null || cookie.isEmpty()) {
+            return "";
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(cookie.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                key.append(String.format("%02x", hash[i]));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 
@@ -0,0 +1,222 @@
+package com.musicapp.neteasemusic.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.musicapp.neteasemusic.util.NeteaseMusicApiClient;
+import com.musicapp.neteasemusic.util.SingleFlight;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 网易云歌单搜索及其结果缓存
+ * 缓存键为规范化后的关键词（去除首尾空白、全角转半角、统一小写、合并连续空白）加上limit和offset；
+ * 条目在TTL内直接返回，过期但仍在陈旧窗口内时先返回旧结果再在后台刷新，
+ * 缓存按条目数和估算内存两个上限做LRU淘汰
+ */
+@Service
+public class NeteaseSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NeteaseSearchService.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Autowired
+    private NeteaseMusicApiClient neteaseMusicApiClient;
+
+    @Value("${netease.search.cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${netease.search.cache.max-size:67108864}")
+    private long maxSizeBytes;
+
+    @Value("${netease.search.cache.ttl:300000}")
+    private long ttlMs;
+
+    @Value("${netease.search.cache.stale-ttl:1800000}")
+    private long staleTtlMs;
+
+    @Value("${netease.search.cache.refresh-threads:2}")
+    private int refreshThreads;
+
+    private final Map<String, CachedSearch> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long currentSizeBytes;
+
+    // 同一关键词的并发未命中只请求一次上游
+    private final SingleFlight<String, JsonNode> searchFlight = new SingleFlight<>();
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong staleHits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong refreshes = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 后台刷新排队已满时直接丢弃，调用方继续使用旧结果，下次访问会再次触发刷新
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100), runnable -> {
+                    Thread thread = new Thread(runnable, "search-refresh-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 搜索歌单
+     */
+    public JsonNode searchPlaylists(String keyword, int limit, int offset) throws IOException {
+        String normalized = normalizeKeyword(keyword);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Keyword must not be empty");
+        }
+        String key = normalized + '\u0000' + limit + '\u0000' + offset;
+        long now = System.currentTimeMillis();
+
+        CachedSearch cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null) {
+            if (now < cached.freshUntil) {
+                hits.incrementAndGet();
+                return cached.result;
+            }
+            if (now < cached.staleUntil) {
+                staleHits.incrementAndGet();
+                scheduleRefresh(key, cached, normalized, limit, offset);
+                return cached.result;
+            }
+        }
+
+        misses.incrementAndGet();
+        return searchFlight.execute(key, () -> load(key, normalized, limit, offset));
+    }
+
+    /**
+     * 关键词规范化：NFKC将全角字母数字和标点转为半角，再统一小写并合并空白
+     */
+    public static String normalizeKeyword(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(keyword, Normalizer.Form.NFKC);
+        normalized = WHITESPACE.matcher(normalized.trim()).replaceAll(" ");
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 搜索缓存的命中、陈旧命中、未命中、后台刷新和淘汰统计，以及上游请求合并情况
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("staleHits", staleHits.get());
+        stats.put("misses", misses.get());
+        stats.put("refreshes", refreshes.get());
+        stats.put("evictions", evictions.get());
+        synchronized (cache) {
+            stats.put("entries", (long) cache.size());
+            stats.put("sizeBytes", currentSizeBytes);
+        }
+        stats.put("maxSizeBytes", maxSizeBytes);
+        stats.put("upstreamCalls", searchFlight.getStats().get("executions"));
+        return stats;
+    }
+
+    private void scheduleRefresh(String key, CachedSearch cached, String normalized, int limit, int offset) {
+        if (!cached.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                searchFlight.execute(key, () -> load(key, normalized, limit, offset));
+                refreshes.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Background refresh of search '{}' failed: {}", normalized, e.getMessage());
+            } finally {
+                cached.refreshing.set(false);
+            }
+        });
+    }
+
+    private JsonNode load(String key, String normalized, int limit, int offset) throws IOException {
+        JsonNode result = neteaseMusicApiClient.searchPlaylist(normalized, limit, offset);
+        // 只缓存成功的结果
+        if (result.path("code").asInt(200) == 200) {
+            put(key, result);
+        }
+        return result;
+    }
+
+    private void put(String key, JsonNode result) {
+        long now = System.currentTimeMillis();
+        // 以序列化后的字符数估算占用，JsonNode树的实际占用与之同数量级
+        long weight = result.toString().length() * 2L + key.length() * 2L;
+        CachedSearch entry = new CachedSearch(result, weight, now + ttlMs, now + ttlMs + staleTtlMs);
+
+        synchronized (cache) {
+            CachedSearch previous = cache.put(key, entry);
+            if (previous != null) {
+                currentSizeBytes -= previous.weight;
+            }
+            currentSizeBytes += weight;
+
+            Iterator<Map.Entry<String, CachedSearch>> iterator = cache.entrySet().iterator();
+            while ((cache.size() > maxEntries || currentSizeBytes > maxSizeBytes) && iterator.hasNext()) {
+                Map.Entry<String, CachedSearch> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                iterator.remove();
+                currentSizeBytes -= eldest.getValue().weight;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static class CachedSearch {
+        private final JsonNode result;
+        private final long weight;
+        private final long freshUntil;
+        private final long staleUntil;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        CachedSearch(JsonNode result, long weight, long freshUntil, long staleUntil) {
+            this.result = result;
+            this.weight = weight;
+            this.freshUntil = freshUntil;
+            this.staleUntil = staleUntil;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.musicapp.neteasemusic.service;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.PlaylistImportResult;
+import com.musicapp.neteasemusic.model.Song;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 批量导入网易云歌单
+ * 先以有限并发从网易云拉取各歌单的详情和歌曲，再在一个事务中统一保存：
+ * 所有歌曲按网易云歌曲ID批量解析，新歌曲和歌曲关联以JDBC批处理写入。
+ * 单个歌单拉取失败只影响该歌单，结果中逐个报告成功或失败
+ */
+@Service
+public class PlaylistImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistImportService.class);
+
+    private static final Pattern PLAYLIST_ID = Pattern.compile("\\d{1,20}");
+
+    @Autowired
+    private NeteaseMusicApiService neteaseMusicApiService;
+
+    @Autowired
+    private PlaylistService playlistService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${playlist.import.max-ids:500}")
+    private int maxIds;
+
+    @Value("${playlist.import.concurrency:8}")
+    private int concurrency;
+
+    @Value("${playlist.import.threads:16}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "playlist-import-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // 拉取任务沿用调用方的认证信息，上游请求据此按用户限流
+        this.executor = new DelegatingSecurityContextExecutorService(
+                Executors.newFixedThreadPool(Math.max(1, threads), threadFactory));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 导入歌单，重复的ID只导入一次
+     */
+    public PlaylistImportResult importPlaylists(Long userId, List<String> neteasePlaylistIds, String cookie)
+            throws IOException {
+        if (neteasePlaylistIds == null || neteasePlaylistIds.isEmpty()) {
+            throw new IllegalArgumentException("No playlist IDs given");
+        }
+        Set<String> uniqueIds = new LinkedHashSet<>();
+        for (String id : neteasePlaylistIds) {
+            uniqueIds.add(id != null ? id.trim() : "");
+        }
+        if (uniqueIds.size() > maxIds) {
+            throw new IllegalArgumentException("Too many playlists: " + uniqueIds.size() + ", at most " + maxIds
+                    + " can be imported at once");
+        }
+
+        Map<String, PlaylistImportResult.Item> items = new LinkedHashMap<>();
+        List<String> validIds = new ArrayList<>(uniqueIds.size());
+        for (String id : uniqueIds) {
+            PlaylistImportResult.Item item = new PlaylistImportResult.Item();
+            item.setNeteasePlaylistId(id);
+            items.put(id, item);
+            if (PLAYLIST_ID.matcher(id).matches()) {
+                validIds.add(id);
+            } else {
+                fail(item, "Invalid playlist ID");
+            }
+        }
+
+        // 拉取阶段不占用数据库连接，失败的歌单在结果中单独标记
+        List<Playlist> fetchedPlaylists = new ArrayList<>(validIds.size());
+        Map<String, List<Song>> tracksByPlaylist = new HashMap<>();
+        Map<String, Future<FetchedPlaylist>> futures = fetchAll(validIds, cookie);
+        try {
+            for (Map.Entry<String, Future<FetchedPlaylist>> entry : futures.entrySet()) {
+                try {
+                    FetchedPlaylist fetched = entry.getValue().get();
+                    fetchedPlaylists.add(fetched.playlist);
+                    tracksByPlaylist.put(fetched.playlist.getNeteasePlaylistId(), fetched.songs);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    logger.warn("Failed to fetch playlist {} for import: {}", entry.getKey(), cause.getMessage());
+                    fail(items.get(entry.getKey()), cause.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while importing playlists", e);
+        } finally {
+            for (Future<FetchedPlaylist> future : futures.values()) {
+                future.cancel(true);
+            }
+        }
+
+        if (!fetchedPlaylists.isEmpty()) {
+            Map<String, Playlist> saved;
+            try {
+                saved = playlistService.saveImportedPlaylists(userId, fetchedPlaylists, tracksByPlaylist);
+            } catch (RuntimeException e) {
+                // 保存在同一个事务中，失败时所有已拉取的歌单都没有写入
+                logger.warn("Failed to save {} imported playlists: {}", fetchedPlaylists.size(), e.getMessage());
+                for (Playlist playlist : fetchedPlaylists) {
+                    fail(items.get(playlist.getNeteasePlaylistId()), "Failed to save playlist: " + e.getMessage());
+                }
+                saved = new HashMap<>();
+            }
+            for (Playlist playlist : fetchedPlaylists) {
+                PlaylistImportResult.Item item = items.get(playlist.getNeteasePlaylistId());
+                if (item.getStatus() == null && !saved.containsKey(playlist.getNeteasePlaylistId())) {
+                    fail(item, "Playlist belongs to another user");
+                }
+            }
+            for (Map.Entry<String, Playlist> entry : saved.entrySet()) {
+                PlaylistImportResult.Item item = items.get(entry.getKey());
+                Playlist playlist = entry.getValue();
+                item.setStatus(PlaylistImportResult.Status.SUCCESS);
+                item.setPlaylistId(playlist.getId());
+                item.setName(playlist.getName());
+                item.setTrackCount(tracksByPlaylist.get(entry.getKey()).size());
+            }
+        }
+
+        PlaylistImportResult result = new PlaylistImportResult();
+        result.setRequested(items.size());
+        for (PlaylistImportResult.Item item : items.values()) {
+            if (item.getStatus() == PlaylistImportResult.Status.SUCCESS) {
+                result.setSucceeded(result.getSucceeded() + 1);
+            } else {
+                result.setFailed(result.getFailed() + 1);
+            }
+            result.getItems().add(item);
+        }
+        meterRegistry.counter("netease.playlist.import.playlists", "outcome", "success").increment(result.getSucceeded());
+        meterRegistry.counter("netease.playlist.import.playlists", "outcome", "failed").increment(result.getFailed());
+        return result;
+    }
+
+    /**
+     * 提交所有歌单的拉取任务，同时在途的歌单不超过concurrency个
+     */
+    private Map<String, Future<FetchedPlaylist>> fetchAll(List<String> ids, String cookie) throws IOException {
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        Map<String, Future<FetchedPlaylist>> futures = new LinkedHashMap<>();
+        try {
+            for (String id : ids) {
+                permits.acquire();
+                try {
+                    futures.put(id, executor.submit(() -> {
+                        try {
+                            return fetch(id, cookie);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<FetchedPlaylist> future : futures.values()) {
+                future.cancel(true);
+            }
+            throw new IOException("Interrupted while importing playlists", e);
+        }
+        return futures;
+    }
+
+    private FetchedPlaylist fetch(String id, String cookie) throws IOException {
+        Playlist playlist = neteaseMusicApiService.getPlaylistDetail(id, cookie);
+        // 以请求中的ID为准，保证结果能与请求逐个对应
+        playlist.setNeteasePlaylistId(id);
+        List<Song> songs = neteaseMusicApiService.getPlaylistTracks(id, playlist.getTrackCount(), cookie);
+        return new FetchedPlaylist(playlist, songs);
+    }
+
+    private static void fail(PlaylistImportResult.Item item, String message) {
+        item.setStatus(PlaylistImportResult.Status.FAILED);
+        item.setErrorMessage(message);
+    }
+
+    private static class FetchedPlaylist {
+        private final Playlist playlist;
+        private final List<Song> songs;
+
+        FetchedPlaylist(Playlist playlist, List<Song> songs) {
+            this.playlist = playlist;
+            this.songs = songs;
+        }
+    }
+}
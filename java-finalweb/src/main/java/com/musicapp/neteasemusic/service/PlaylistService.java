@@ -1,18 +1,36 @@
 package com.musicapp.neteasemusic.service;
 
 import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.PlaylistSummary;
+import com.musicapp.neteasemusic.model.PlaylistSyncResult;
 import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.model.SongPage;
+import com.musicapp.neteasemusic.model.SongSummary;
 import com.musicapp.neteasemusic.model.User;
 import com.musicapp.neteasemusic.repository.PlaylistRepository;
 import com.musicapp.neteasemusic.repository.SongRepository;
 import com.musicapp.neteasemusic.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PlaylistService {
@@ -29,6 +47,24 @@ public class PlaylistService {
     @Autowired
     private NeteaseMusicApiService neteaseMusicApiService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SongCatalogIndex songCatalogIndex;
+
+    @Value("${playlist.sync.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${playlist.sync.remove-missing:false}")
+    private boolean removeMissingPlaylists;
+
+    @Value("${playlist.snapshot.ttl:86400000}")
+    private long snapshotTtlMs;
+
+    @Value("${playlist.songs.page.max-size:500}")
+    private int maxPageSize;
+
     /**
      * 获取用户的所有歌单
      */
@@ -36,6 +72,13 @@ public class PlaylistService {
         return playlistRepository.findByUserId(userId);
     }
 
+    /**
+     * 获取用户所有歌单的摘要信息，用于仪表盘列表
+     */
+    public List<PlaylistSummary> getUserPlaylistSummaries(Long userId) {
+        return playlistRepository.findSummariesByUserId(userId);
+    }
+
     /**
      * 根据ID获取歌单详情
      */
@@ -45,9 +88,19 @@ public class PlaylistService {
 
     /**
      * 同步用户的网易云音乐歌单到本地数据库
+     * 一次性读取用户已保存的歌单并与网易云返回的列表按neteasePlaylistId比对，只写入新增、变化和删除的歌单
      */
     @Transactional
-    public List<Playlist> syncUserPlaylists(Long userId, String neteaseUserId, String cookie) throws IOException {
+    public PlaylistSyncResult syncUserPlaylists(Long userId, String neteaseUserId, String cookie) throws IOException {
+        PlaylistSyncResult result = timeSync("playlists", () -> doSyncUserPlaylists(userId, neteaseUserId, cookie));
+        countSyncedPlaylists("added", result.getAdded());
+        countSyncedPlaylists("updated", result.getUpdated());
+        countSyncedPlaylists("removed", result.getRemoved());
+        countSyncedPlaylists("unchanged", result.getUnchanged());
+        return result;
+    }
+
+    private PlaylistSyncResult doSyncUserPlaylists(Long userId, String neteaseUserId, String cookie) throws IOException {
         // 获取用户信息
         Optional<User> userOptional = userRepository.findById(userId);
         if (!userOptional.isPresent()) {
@@ -55,76 +108,396 @@ public class PlaylistService {
         }
         User user = userOptional.get();
 
-        // 更新用户的网易云ID和Cookie
-        user.setNeteaseUserId(neteaseUserId);
-        user.setNeteaseCookie(cookie);
-        userRepository.save(user);
+        // 网易云ID或Cookie变化时才更新用户
+        if (!Objects.equals(user.getNeteaseUserId(), neteaseUserId) || !Objects.equals(user.getNeteaseCookie(), cookie)) {
+            user.setNeteaseUserId(neteaseUserId);
+            user.setNeteaseCookie(cookie);
+            userRepository.save(user);
+        }
 
         // 从网易云API获取歌单列表
         List<Playlist> neteasePlaylists = neteaseMusicApiService.getUserPlaylists(neteaseUserId, cookie);
 
-        // 保存歌单到数据库
+        // 一次查询读取用户已保存的歌单
+        Map<String, Playlist> storedPlaylists = new HashMap<>();
+        for (Playlist playlist : playlistRepository.findByUserId(userId)) {
+            storedPlaylists.put(playlist.getNeteasePlaylistId(), playlist);
+        }
+
+        PlaylistSyncResult result = new PlaylistSyncResult();
+        List<Playlist> toSave = new ArrayList<>();
+        Set<String> upstreamIds = new HashSet<>();
         for (Playlist neteasePlaylist : neteasePlaylists) {
-            // 检查歌单是否已存在
-            Optional<Playlist> existingPlaylist = playlistRepository.findByNeteasePlaylistId(neteasePlaylist.getNeteasePlaylistId());
-            if (existingPlaylist.isPresent()) {
+            String neteasePlaylistId = neteasePlaylist.getNeteasePlaylistId();
+            upstreamIds.add(neteasePlaylistId);
+
+            Playlist playlist = storedPlaylists.get(neteasePlaylistId);
+            if (playlist == null) {
+                // 创建新歌单；其他用户保存的同一歌单是另外一行，不做修改
+                neteasePlaylist.setUser(user);
+                toSave.add(neteasePlaylist);
+                result.getPlaylists().add(neteasePlaylist);
+                result.setAdded(result.getAdded() + 1);
+                continue;
+            } else if (isPlaylistInfoChanged(neteasePlaylist, playlist)) {
                 // 更新现有歌单
-                Playlist playlist = existingPlaylist.get();
-                playlist.setName(neteasePlaylist.getName());
-                playlist.setDescription(neteasePlaylist.getDescription());
-                playlist.setCoverUrl(neteasePlaylist.getCoverUrl());
-                playlist.setTrackCount(neteasePlaylist.getTrackCount());
-                playlist.setUser(user);
-                playlistRepository.save(playlist);
+                copyPlaylistInfo(neteasePlaylist, playlist);
+                toSave.add(playlist);
+                result.setUpdated(result.getUpdated() + 1);
             } else {
-                // 创建新歌单
-                neteasePlaylist.setUser(user);
-                playlistRepository.save(neteasePlaylist);
+                result.getUnchangedPlaylistIds().add(playlist.getId());
+                result.setUnchanged(result.getUnchanged() + 1);
+            }
+            result.getPlaylists().add(playlist);
+        }
+
+        // 网易云中已不存在的歌单默认保留（可能只是取消了收藏，或上游暂时没有返回），开启remove-missing时才删除；
+        // 批量导入的歌单本来就不在用户的歌单列表中，任何情况下都不删除
+        List<Playlist> toRemove = new ArrayList<>();
+        if (removeMissingPlaylists) {
+            for (Playlist playlist : storedPlaylists.values()) {
+                if (!playlist.isImported() && !upstreamIds.contains(playlist.getNeteasePlaylistId())) {
+                    toRemove.add(playlist);
+                }
             }
         }
+        result.setRemoved(toRemove.size());
 
-        // 返回用户的所有歌单
-        return playlistRepository.findByUser(user);
+        if (!toSave.isEmpty()) {
+            playlistRepository.saveAll(toSave);
+        }
+        if (!toRemove.isEmpty()) {
+            List<Long> removedIds = new ArrayList<>(toRemove.size());
+            for (Playlist playlist : toRemove) {
+                removedIds.add(playlist.getId());
+            }
+            playlistRepository.deleteSongsByPlaylistIdIn(removedIds);
+            playlistRepository.deleteAll(toRemove);
+        }
+        return result;
+    }
+
+    private interface SyncBody<T> {
+        T run() throws IOException;
     }
 
     /**
-     * 获取歌单的歌曲列表
+     * 记录一次同步的耗时，按同步类型（playlists、tracks）和结果打标签
+     */
+    private <T> T timeSync(String type, SyncBody<T> body) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = body.run();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("netease.playlist.sync")
+                    .description("Playlist sync duration")
+                    .tag("type", type)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void countSyncedPlaylists(String change, int count) {
+        meterRegistry.counter("netease.playlist.sync.playlists", "change", change).increment(count);
+    }
+
+    private boolean isPlaylistInfoChanged(Playlist source, Playlist target) {
+        return !Objects.equals(source.getName(), target.getName())
+                || !Objects.equals(source.getDescription(), target.getDescription())
+                || !Objects.equals(source.getCoverUrl(), target.getCoverUrl())
+                || !Objects.equals(source.getTrackCount(), target.getTrackCount())
+                || !Objects.equals(source.getNeteaseUpdateTime(), target.getNeteaseUpdateTime());
+    }
+
+    private void copyPlaylistInfo(Playlist source, Playlist target) {
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setCoverUrl(source.getCoverUrl());
+        target.setTrackCount(source.getTrackCount());
+        target.setNeteaseUpdateTime(source.getNeteaseUpdateTime());
+    }
+
+    /**
+     * 获取歌单的歌曲列表，本地快照仍新鲜时不访问网易云API
      */
     @Transactional
     public List<Song> getPlaylistSongs(Long playlistId, String cookie) throws IOException {
+        return getPlaylistSongs(playlistId, cookie, false);
+    }
+
+    /**
+     * 获取歌单的歌曲列表
+     * forceRefresh为true时忽略本地快照，强制从网易云API重新拉取
+     */
+    @Transactional
+    public List<Song> getPlaylistSongs(Long playlistId, String cookie, boolean forceRefresh) throws IOException {
         Optional<Playlist> playlistOptional = playlistRepository.findById(playlistId);
         if (!playlistOptional.isPresent()) {
             throw new IllegalArgumentException("Playlist not found");
         }
         Playlist playlist = playlistOptional.get();
 
+        if (!forceRefresh && isSnapshotFresh(playlist)) {
+            return songRepository.findByPlaylistIdInPositionOrder(playlistId);
+        }
+        return timeSync("tracks", () -> refreshPlaylistSongs(playlist, cookie));
+    }
+
+    /**
+     * 从网易云API重新拉取歌单歌曲并写入本地快照
+     */
+    private List<Song> refreshPlaylistSongs(Playlist playlist, String cookie) throws IOException {
         // 从网易云API获取歌单歌曲
-        List<Song> neteaseSongs = neteaseMusicApiService.getPlaylistTracks(playlist.getNeteasePlaylistId(), cookie);
+        List<Song> neteaseSongs = neteaseMusicApiService.getPlaylistTracks(
+                playlist.getNeteasePlaylistId(), playlist.getTrackCount(), cookie);
+        meterRegistry.counter("netease.playlist.sync.tracks").increment(neteaseSongs.size());
+
+        // 批量解析歌曲ID，只插入数据库中缺失的歌曲
+        Map<Long, Long> storedIds = resolveSongIds(neteaseSongs);
 
-        // 保存歌曲到数据库
+        // 按歌单原顺序组装歌曲ID，返回的歌曲直接使用网易云的最新数据
+        List<Long> songIds = new ArrayList<>(neteaseSongs.size());
         for (Song neteaseSong : neteaseSongs) {
-            // 检查歌曲是否已存在
-            if (!songRepository.existsByNeteaseSongId(neteaseSong.getNeteaseSongId())) {
-                songRepository.save(neteaseSong);
+            Long songId = storedIds.get(neteaseSong.getNeteaseSongId());
+            if (songId != null) {
+                neteaseSong.setId(songId);
+                songIds.add(songId);
             }
         }
 
-        // 更新歌单的歌曲列表
-        List<Song> songsToSave = new java.util.ArrayList<>();
+        // 只写入与现有关联相比新增、移除和移动的行，不再整表删除后重新插入
+        int changedRows = playlistRepository.replaceSongs(playlist.getId(), songIds);
+        meterRegistry.counter("netease.playlist.sync.membership.changes").increment(changedRows);
+        playlist.setSnapshotAt(new Date());
+        playlist.setSnapshotTrackCount(playlist.getTrackCount());
+        playlist.setSnapshotUpdateTime(playlist.getNeteaseUpdateTime());
+        playlistRepository.save(playlist);
+
+        return neteaseSongs;
+    }
+
+    /**
+     * 保存批量导入的歌单及其歌曲
+     * 所有歌单的歌曲合并后按网易云歌曲ID一次批量解析，新歌曲和新歌单的歌曲关联都以JDBC批处理写入；
+     * 当前用户已有的歌单更新信息，其歌曲关联按差异更新。保存的歌单都标记为导入，之后的歌单同步不会删除它们。
+     * 其他用户保存的同一歌单是另外一行，不做修改
+     *
+     * @param playlists        网易云歌单详情
+     * @param tracksByPlaylist 按网易云歌单ID分组的歌曲
+     * @return 按网易云歌单ID索引的已保存歌单
+     */
+    @Transactional
+    public Map<String, Playlist> saveImportedPlaylists(Long userId, List<Playlist> playlists,
+                                                       Map<String, List<Song>> tracksByPlaylist) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        List<String> neteasePlaylistIds = new ArrayList<>(playlists.size());
+        for (Playlist playlist : playlists) {
+            neteasePlaylistIds.add(playlist.getNeteasePlaylistId());
+        }
+        Map<String, Playlist> existingPlaylists = new HashMap<>();
+        for (int from = 0; from < neteasePlaylistIds.size(); from += chunkSize) {
+            List<String> chunk = neteasePlaylistIds.subList(from, Math.min(from + chunkSize, neteasePlaylistIds.size()));
+            for (Playlist playlist : playlistRepository.findByUserIdAndNeteasePlaylistIdIn(userId, chunk)) {
+                existingPlaylists.put(playlist.getNeteasePlaylistId(), playlist);
+            }
+        }
+
+        // 歌曲随歌单一起拉取，保存后的快照即为最新
+        Date now = new Date();
+        List<Playlist> toSave = new ArrayList<>(playlists.size());
+        Set<String> createdIds = new HashSet<>();
+        for (Playlist neteasePlaylist : playlists) {
+            Playlist playlist = existingPlaylists.get(neteasePlaylist.getNeteasePlaylistId());
+            if (playlist == null) {
+                playlist = neteasePlaylist;
+                playlist.setUser(user);
+                createdIds.add(playlist.getNeteasePlaylistId());
+            } else {
+                copyPlaylistInfo(neteasePlaylist, playlist);
+            }
+            playlist.setImported(true);
+            playlist.setSnapshotAt(now);
+            playlist.setSnapshotTrackCount(playlist.getTrackCount());
+            playlist.setSnapshotUpdateTime(playlist.getNeteaseUpdateTime());
+            toSave.add(playlist);
+        }
+        playlistRepository.saveAll(toSave);
+
+        List<Song> allSongs = new ArrayList<>();
+        for (Playlist playlist : toSave) {
+            List<Song> songs = tracksByPlaylist.get(playlist.getNeteasePlaylistId());
+            if (songs != null) {
+                allSongs.addAll(songs);
+            }
+        }
+        Map<Long, Long> storedIds = resolveSongIds(allSongs);
+
+        // 新歌单的关联行合并为一次批处理，已有歌单逐个按差异更新
+        Map<Long, List<Long>> newMemberships = new LinkedHashMap<>();
+        Map<String, Playlist> saved = new LinkedHashMap<>();
+        for (Playlist playlist : toSave) {
+            List<Song> songs = tracksByPlaylist.get(playlist.getNeteasePlaylistId());
+            List<Long> songIds = new ArrayList<>(songs != null ? songs.size() : 0);
+            if (songs != null) {
+                for (Song neteaseSong : songs) {
+                    Long songId = storedIds.get(neteaseSong.getNeteaseSongId());
+                    if (songId != null) {
+                        songIds.add(songId);
+                    }
+                }
+            }
+            if (createdIds.contains(playlist.getNeteasePlaylistId())) {
+                newMemberships.put(playlist.getId(), songIds);
+            } else {
+                playlistRepository.replaceSongs(playlist.getId(), songIds);
+            }
+            saved.put(playlist.getNeteasePlaylistId(), playlist);
+        }
+        if (!newMemberships.isEmpty()) {
+            playlistRepository.insertSongs(newMemberships);
+        }
+        return saved;
+    }
+
+    /**
+     * 分页获取本地保存的歌单歌曲，只查询数据库，不访问网易云API
+     * after为上一页返回的游标，首页传null；同步或导入后还没有加载过歌曲的歌单返回loaded=false的空页，
+     * 由调用方先请求一次getPlaylistSongs加载
+     */
+    public SongPage getPlaylistSongsPage(Long playlistId, Long userId, Long after, int size) {
+        List<Date> snapshotAt = playlistRepository.findSnapshotAtByIdAndUserId(playlistId, userId);
+        if (snapshotAt.isEmpty()) {
+            throw new IllegalArgumentException("Playlist not found");
+        }
+        if (snapshotAt.get(0) == null) {
+            return new SongPage();
+        }
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+
+        // 多取一条用于判断是否还有下一页
+        List<SongSummary> songs = playlistRepository.findSongSummariesAfter(
+                playlistId, after != null ? after : Long.MIN_VALUE, pageSize + 1);
+
+        SongPage page = new SongPage();
+        page.setLoaded(true);
+        page.setHasMore(songs.size() > pageSize);
+        if (page.isHasMore()) {
+            songs = songs.subList(0, pageSize);
+        }
+        page.setSongs(songs);
+        if (page.isHasMore()) {
+            page.setNextCursor(songs.get(songs.size() - 1).getPosition());
+        }
+        return page;
+    }
+
+    /**
+     * 判断歌单的本地歌曲快照是否仍然新鲜：
+     * 快照未超过TTL，且同步时记录的歌曲数量和网易云更新时间与快照时一致。
+     * 快照新鲜时getPlaylistSongs直接读取本地快照，不会改变快照字段
+     */
+    public boolean isSnapshotFresh(Playlist playlist) {
+        if (playlist.getSnapshotAt() == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - playlist.getSnapshotAt().getTime() > snapshotTtlMs) {
+            return false;
+        }
+        return Objects.equals(playlist.getTrackCount(), playlist.getSnapshotTrackCount())
+                && Objects.equals(playlist.getNeteaseUpdateTime(), playlist.getSnapshotUpdateTime());
+    }
+
+    /**
+     * 按网易云歌曲ID批量解析本地歌曲ID，缺失的歌曲以JDBC批处理插入后再查回
+     * 先查进程内的歌曲目录索引，只有索引未命中的ID才查询数据库；查询按chunkSize分块，只读取ID两列
+     *
+     * @return 网易云歌曲ID到本地歌曲ID的映射
+     */
+    private Map<Long, Long> resolveSongIds(List<Song> neteaseSongs) {
+        Map<Long, Song> uniqueSongs = new LinkedHashMap<>();
         for (Song neteaseSong : neteaseSongs) {
-            Song song = songRepository.findByNeteaseSongId(neteaseSong.getNeteaseSongId()).orElse(neteaseSong);
-            songsToSave.add(song);
+            if (neteaseSong.getNeteaseSongId() != null) {
+                uniqueSongs.putIfAbsent(neteaseSong.getNeteaseSongId(), neteaseSong);
+            }
+        }
+
+        Map<Long, Long> storedIds = new HashMap<>(uniqueSongs.size() * 2);
+        List<Long> unknownIds = new ArrayList<>();
+        for (Long neteaseSongId : uniqueSongs.keySet()) {
+            long songId = songCatalogIndex.get(neteaseSongId);
+            if (songId != SongCatalogIndex.NOT_FOUND) {
+                storedIds.put(neteaseSongId, songId);
+            } else {
+                unknownIds.add(neteaseSongId);
+            }
+        }
+        if (unknownIds.isEmpty()) {
+            return storedIds;
+        }
+
+        Map<Long, Long> loadedIds = new HashMap<>(unknownIds.size() * 2);
+        loadSongIdsInChunks(unknownIds, loadedIds);
+
+        List<Song> missingSongs = new ArrayList<>();
+        for (Long neteaseSongId : unknownIds) {
+            if (!loadedIds.containsKey(neteaseSongId)) {
+                missingSongs.add(uniqueSongs.get(neteaseSongId));
+            }
+        }
+        if (!missingSongs.isEmpty()) {
+            List<Long> missingIds = new ArrayList<>(missingSongs.size());
+            for (int from = 0; from < missingSongs.size(); from += chunkSize) {
+                List<Song> chunk = missingSongs.subList(from, Math.min(from + chunkSize, missingSongs.size()));
+                songRepository.batchInsertIfAbsent(chunk);
+                for (Song song : chunk) {
+                    missingIds.add(song.getNeteaseSongId());
+                }
+            }
+            loadSongIdsInChunks(missingIds, loadedIds);
         }
-        playlist.setSongs(songsToSave);
-        playlistRepository.save(playlist);
 
-        return songsToSave;
+        storedIds.putAll(loadedIds);
+        indexAfterCommit(loadedIds);
+        return storedIds;
+    }
+
+    private void loadSongIdsInChunks(List<Long> neteaseSongIds, Map<Long, Long> target) {
+        for (int from = 0; from < neteaseSongIds.size(); from += chunkSize) {
+            List<Long> chunk = neteaseSongIds.subList(from, Math.min(from + chunkSize, neteaseSongIds.size()));
+            target.putAll(songRepository.findIdsByNeteaseSongIds(chunk));
+        }
+    }
+
+    /**
+     * 事务提交后再把新解析的映射写入歌曲目录索引，避免回滚后索引中留下不存在的歌曲ID
+     */
+    private void indexAfterCommit(Map<Long, Long> songIds) {
+        if (songIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            songCatalogIndex.putAll(songIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                songCatalogIndex.putAll(songIds);
+            }
+        });
     }
 
     /**
      * 删除歌单
      */
+    @Transactional
     public void deletePlaylist(Long playlistId) {
+        playlistRepository.deleteSongsByPlaylistIdIn(Collections.singletonList(playlistId));
         playlistRepository.deleteById(playlistId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.musicapp.neteasemusic.service;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多歌单并发加载器
+ * 同一次导出最多同时加载parallelism个歌单，结果按歌单原顺序交给回调；
+ * 单个歌单加载失败只会把异常交给回调，不会中断整个导出
+ */
+@Service
+public class PlaylistSongsLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaylistSongsLoader.class);
+
+    @Autowired
+    private PlaylistService playlistService;
+
+    @Value("${export.loader.parallelism:4}")
+    private int parallelism;
+
+    @Value("${export.loader.threads:16}")
+    private int threads;
+
+    @Value("${export.timeout:600000}")
+    private long exportTimeoutMs;
+
+    private ExecutorService executor;
+
+    /**
+     * 单个歌单加载完成（或失败）后的回调，调用顺序与歌单列表顺序一致
+     */
+    public interface PlaylistSongsHandler {
+        void handle(Playlist playlist, List<Song> songs, Exception error) throws IOException;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "playlist-loader-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // 提交任务时带上调用方的认证信息，上游请求据此按用户限流
+        this.executor = new DelegatingSecurityContextExecutorService(
+                Executors.newFixedThreadPool(Math.max(1, threads), threadFactory));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 并发加载歌单歌曲并按原顺序回调，超过导出超时时间时取消剩余歌单并抛出IOException
+     * forceRefresh为true时忽略本地快照强制从网易云重新拉取
+     */
+    public void loadInOrder(List<Playlist> playlists, String cookie, boolean forceRefresh,
+                            PlaylistSongsHandler handler) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(exportTimeoutMs);
+        Iterator<Playlist> pending = playlists.iterator();
+        Deque<Future<List<Song>>> inFlight = new ArrayDeque<>();
+        Deque<Playlist> inFlightPlaylists = new ArrayDeque<>();
+
+        try {
+            fillWindow(pending, cookie, forceRefresh, inFlight, inFlightPlaylists);
+            while (!inFlight.isEmpty()) {
+                Future<List<Song>> future = inFlight.pollFirst();
+                Playlist playlist = inFlightPlaylists.pollFirst();
+
+                List<Song> songs = null;
+                Exception error = null;
+                try {
+                    long remaining = deadline - System.nanoTime();
+                    songs = future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException e) {
+                    error = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    logger.warn("Failed to load songs of playlist {}: {}", playlist.getId(), error.getMessage());
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    throw new IOException("Export timed out after " + exportTimeoutMs + " ms");
+                }
+
+                // 先补充窗口再回调，让后续歌单在写出当前歌单时继续加载
+                fillWindow(pending, cookie, forceRefresh, inFlight, inFlightPlaylists);
+                handler.handle(playlist, songs, error);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading playlists", e);
+        } finally {
+            for (Future<List<Song>> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void fillWindow(Iterator<Playlist> pending, String cookie, boolean forceRefresh,
+                            Deque<Future<List<Song>>> inFlight, Deque<Playlist> inFlightPlaylists) {
+        while (inFlight.size() < Math.max(1, parallelism) && pending.hasNext()) {
+            Playlist playlist = pending.next();
+            inFlight.addLast(executor.submit(
+                    () -> playlistService.getPlaylistSongs(playlist.getId(), cookie, forceRefresh)));
+            inFlightPlaylists.addLast(playlist);
+        }
+    }
+}
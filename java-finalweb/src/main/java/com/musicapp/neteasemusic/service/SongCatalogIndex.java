@@ -0,0 +1,177 @@
+package com.musicapp.neteasemusic.service;
+
+import com.musicapp.neteasemusic.util.LongLongHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内的歌曲目录索引：网易云歌曲ID到本地歌曲ID的映射
+ * 同步和导入时已知的歌曲直接在内存中解析，不再查询数据库；索引在解析歌曲时按需填充，不做启动预热。
+ * 按键分段加锁，每段用两代基本类型哈希表实现近似LRU：新映射写入当前代，当前代写满时整体降为上一代，
+ * 原来的上一代被丢弃；上一代中被再次访问的映射会提升到当前代，因此淘汰的是最近一代内没有被访问过的冷条目。
+ * 总条目数不超过max-entries，哈希表在启动时按容量一次分配，默认100万条目约占32MB
+ */
+@Service
+public class SongCatalogIndex {
+
+    /**
+     * 未找到映射时的返回值，本地歌曲ID均为正数
+     */
+    public static final long NOT_FOUND = -1L;
+
+    @Value("${song.catalog.max-entries:1000000}")
+    private int maxEntries;
+
+    @Value("${song.catalog.segments:16}")
+    private int segmentCount;
+
+    private Segment[] segments;
+
+    private int segmentMask;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        // 段数取2的幂，便于按哈希值取段
+        int count = Integer.highestOneBit(Math.max(1, segmentCount));
+        int generationCapacity = Math.max(1, maxEntries / count / 2);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(generationCapacity);
+        }
+        this.segmentMask = count - 1;
+    }
+
+    /**
+     * 查找网易云歌曲ID对应的本地歌曲ID，不存在时返回NOT_FOUND
+     */
+    public long get(long neteaseSongId) {
+        if (neteaseSongId <= 0) {
+            return NOT_FOUND;
+        }
+        long id = segmentFor(neteaseSongId).get(neteaseSongId);
+        if (id == NOT_FOUND) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return id;
+    }
+
+    /**
+     * 记录网易云歌曲ID与本地歌曲ID的映射，只应写入已提交到数据库的歌曲
+     */
+    public void put(long neteaseSongId, long songId) {
+        if (neteaseSongId <= 0 || songId <= 0) {
+            return;
+        }
+        segmentFor(neteaseSongId).put(neteaseSongId, songId);
+    }
+
+    public void putAll(Map<Long, Long> songIds) {
+        for (Map.Entry<Long, Long> entry : songIds.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 获取索引的统计信息
+     */
+    public Map<String, Long> getStats() {
+        long entries = 0;
+        long sizeBytes = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.current.size() + segment.previous.size();
+                sizeBytes += segment.current.tableBytes() + segment.previous.tableBytes();
+            }
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        // 提升到当前代的条目在上一代中仍有一份，这里的条目数是上限估计
+        stats.put("entries", entries);
+        stats.put("maxEntries", (long) maxEntries);
+        stats.put("sizeBytes", sizeBytes);
+        return stats;
+    }
+
+    private Segment segmentFor(long neteaseSongId) {
+        // 选段与段内哈希表使用不同的哈希函数，避免同一段内的键集中在少数槽位
+        long h = neteaseSongId * 0x9e3779b97f4a7c15L;
+        return segments[(int) (h >>> 40) & segmentMask];
+    }
+
+    private class Segment {
+        private final int generationCapacity;
+        private LongLongHashMap current;
+        private LongLongHashMap previous;
+        // 当前代中从上一代提升而来的条目数，用于计算轮换时真正被丢弃的条目数
+        private int promoted;
+
+        Segment(int generationCapacity) {
+            this.generationCapacity = generationCapacity;
+            this.current = new LongLongHashMap(generationCapacity);
+            this.previous = new LongLongHashMap(generationCapacity);
+        }
+
+        synchronized long get(long key) {
+            long id = current.get(key, NOT_FOUND);
+            if (id != NOT_FOUND) {
+                return id;
+            }
+            id = previous.get(key, NOT_FOUND);
+            if (id != NOT_FOUND) {
+                promote(key, id);
+            }
+            return id;
+        }
+
+        synchronized void put(long key, long value) {
+            if (current.containsKey(key)) {
+                current.put(key, value);
+                return;
+            }
+            promote(key, value);
+        }
+
+        /**
+         * 写入当前代，当前代已满时先轮换
+         */
+        private void promote(long key, long value) {
+            boolean fromPrevious = previous.containsKey(key);
+            if (current.size() >= generationCapacity) {
+                // 正在提升的条目随即写入新的当前代，不计为淘汰
+                rotate(fromPrevious ? 1 : 0);
+                fromPrevious = false;
+            }
+            current.put(key, value);
+            if (fromPrevious) {
+                promoted++;
+            }
+        }
+
+        private void rotate(int survivors) {
+            evictions.add(Math.max(0, previous.size() - promoted - survivors));
+            // 复用被丢弃的上一代数组，轮换时不分配新的哈希表
+            LongLongHashMap recycled = previous;
+            recycled.clear();
+            previous = current;
+            current = recycled;
+            promoted = 0;
+        }
+    }
+}
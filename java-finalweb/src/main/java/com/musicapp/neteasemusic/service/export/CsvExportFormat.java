@@ -0,0 +1,133 @@
+package com.musicapp.neteasemusic.service.export;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * CSV格式（RFC 4180），带UTF-8 BOM以便Excel正确识别中文
+ */
+@Component
+public class CsvExportFormat implements ExportFormat {
+
+    private static final String HEADER = "序号,歌曲名,歌手,专辑,时长(毫秒),网易云歌曲ID\r\n";
+
+    /**
+     * 所有歌单导出时每行前加歌单列，加载失败的歌单写一行，只填歌单和错误列
+     */
+    private static final String ALL_PLAYLISTS_HEADER = "歌单,序号,歌曲名,歌手,专辑,时长(毫秒),网易云歌曲ID,错误\r\n";
+
+    @Override
+    public String getName() {
+        return "csv";
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/csv; charset=utf-8";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "csv";
+    }
+
+    @Override
+    public void write(Playlist playlist, Iterator<Song> songs, int songCount, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+        writer.write(HEADER);
+
+        int index = 0;
+        while (songs.hasNext()) {
+            writeSong(writer, ++index, songs.next());
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    @Override
+    public AllPlaylistsWriter openAll(String username, int playlistCount, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+        writer.write(ALL_PLAYLISTS_HEADER);
+        writer.flush();
+        return new AllPlaylistsWriter() {
+            @Override
+            public void writePlaylist(Playlist playlist, List<Song> songs) throws IOException {
+                for (int i = 0; i < songs.size(); i++) {
+                    writeField(writer, playlist.getName());
+                    writer.write(',');
+                    writeSong(writer, i + 1, songs.get(i));
+                    writer.write(",\r\n");
+                }
+                writer.flush();
+            }
+
+            @Override
+            public void writeError(Playlist playlist, String message) throws IOException {
+                writeField(writer, playlist.getName());
+                writer.write(",,,,,,,");
+                writeField(writer, message);
+                writer.write("\r\n");
+                writer.flush();
+            }
+
+            @Override
+            public void finish() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    /**
+     * 写入一首歌曲的各列，不含行尾
+     */
+    private void writeSong(Writer writer, int index, Song song) throws IOException {
+        writer.write(Integer.toString(index));
+        writer.write(',');
+        writeField(writer, song.getName());
+        writer.write(',');
+        writeField(writer, song.getArtists());
+        writer.write(',');
+        writeField(writer, song.getAlbum());
+        writer.write(',');
+        if (song.getDuration() != null) {
+            writer.write(Integer.toString(song.getDuration()));
+        }
+        writer.write(',');
+        if (song.getNeteaseSongId() != null) {
+            writer.write(Long.toString(song.getNeteaseSongId()));
+        }
+    }
+
+    private void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
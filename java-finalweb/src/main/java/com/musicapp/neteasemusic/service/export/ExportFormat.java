@@ -0,0 +1,64 @@
+package com.musicapp.neteasemusic.service.export;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 歌单导出格式
+ * 实现类逐首歌曲直接写入输出流，不生成完整的中间字符串；写完后只flush，不关闭调用方的输出流
+ */
+public interface ExportFormat {
+
+    /**
+     * 格式名，用于URL路径，如 txt、csv
+     */
+    String getName();
+
+    /**
+     * 响应的Content-Type
+     */
+    String getContentType();
+
+    /**
+     * 导出文件扩展名（不含点）
+     */
+    String getFileExtension();
+
+    /**
+     * 将歌单写入输出流
+     *
+     * @param songCount 歌曲总数，部分格式需要在歌曲列表之前写出
+     */
+    void write(Playlist playlist, Iterator<Song> songs, int songCount, OutputStream out) throws IOException;
+
+    /**
+     * 开始写入包含用户所有歌单的单个文件，调用方按顺序逐个写入歌单，最后调用finish
+     *
+     * @param username      导出用户，写入文件头
+     * @param playlistCount 歌单总数
+     */
+    AllPlaylistsWriter openAll(String username, int playlistCount, OutputStream out) throws IOException;
+
+    /**
+     * 所有歌单导出文件的写出器，每次导出新建一个；每个歌单写完后flush，便于边加载边发送
+     */
+    interface AllPlaylistsWriter {
+
+        void writePlaylist(Playlist playlist, List<Song> songs) throws IOException;
+
+        /**
+         * 写入加载失败的歌单及原因
+         */
+        void writeError(Playlist playlist, String message) throws IOException;
+
+        /**
+         * 写入文件尾并flush，不关闭输出流
+         */
+        void finish() throws IOException;
+    }
+}
@@ -0,0 +1,63 @@
+package com.musicapp.neteasemusic.service.export;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 已注册的导出格式，按路径中的格式名或Accept请求头选择
+ */
+@Component
+public class ExportFormatRegistry {
+
+    public static final String DEFAULT_FORMAT = "txt";
+
+    private final Map<String, ExportFormat> formats = new LinkedHashMap<>();
+
+    @Autowired
+    public ExportFormatRegistry(List<ExportFormat> exportFormats) {
+        for (ExportFormat format : exportFormats) {
+            formats.put(format.getName(), format);
+        }
+    }
+
+    public Optional<ExportFormat> getFormat(String name) {
+        return Optional.ofNullable(formats.get(name.toLowerCase()));
+    }
+
+    /**
+     * 按Accept请求头选择格式，没有匹配的具体类型时使用txt
+     */
+    public ExportFormat resolve(String acceptHeader) {
+        if (StringUtils.hasText(acceptHeader)) {
+            try {
+                List<MediaType> accepted = MediaType.parseMediaTypes(acceptHeader);
+                MediaType.sortBySpecificityAndQuality(accepted);
+                for (MediaType mediaType : accepted) {
+                    if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+                        continue;
+                    }
+                    for (ExportFormat format : formats.values()) {
+                        if (mediaType.includes(MediaType.parseMediaType(format.getContentType()))) {
+                            return format;
+                        }
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // 无法解析的Accept请求头按默认格式处理
+            }
+        }
+        return formats.get(DEFAULT_FORMAT);
+    }
+
+    public List<String> getFormatNames() {
+        return new ArrayList<>(formats.keySet());
+    }
+}
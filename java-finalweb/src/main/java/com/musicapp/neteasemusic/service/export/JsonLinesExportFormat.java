@@ -0,0 +1,106 @@
+package com.musicapp.neteasemusic.service.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * JSON Lines格式，每行一首歌曲
+ */
+@Component
+public class JsonLinesExportFormat implements ExportFormat {
+
+    private final JsonFactory jsonFactory = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    @Override
+    public String getName() {
+        return "jsonl";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/x-ndjson; charset=utf-8";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "jsonl";
+    }
+
+    @Override
+    public void write(Playlist playlist, Iterator<Song> songs, int songCount, OutputStream out) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+            int index = 0;
+            while (songs.hasNext()) {
+                writeSong(generator, ++index, songs.next(), playlist);
+            }
+            if (index > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+
+    /**
+     * 每行都带playlist字段，所有歌单的歌曲按顺序写在同一个文件中；加载失败的歌单写一行playlist和error
+     */
+    @Override
+    public AllPlaylistsWriter openAll(String username, int playlistCount, OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        // 每个对象后直接换行，而不是在下一个对象前，这样每个歌单写完后已发送的内容都是完整的行
+        generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        return new AllPlaylistsWriter() {
+            @Override
+            public void writePlaylist(Playlist playlist, List<Song> songs) throws IOException {
+                for (int i = 0; i < songs.size(); i++) {
+                    writeSong(generator, i + 1, songs.get(i), playlist);
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            }
+
+            @Override
+            public void writeError(Playlist playlist, String message) throws IOException {
+                generator.writeStartObject();
+                generator.writeStringField("playlist", playlist.getName());
+                generator.writeStringField("error", message);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                generator.flush();
+            }
+
+            @Override
+            public void finish() throws IOException {
+                generator.close();
+            }
+        };
+    }
+
+    private void writeSong(JsonGenerator generator, int index, Song song, Playlist playlist) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("index", index);
+        // 保持字符串形式，与之前导出的文件兼容
+        generator.writeStringField("neteaseSongId",
+                song.getNeteaseSongId() != null ? song.getNeteaseSongId().toString() : null);
+        generator.writeStringField("name", song.getName());
+        generator.writeStringField("artists", song.getArtists());
+        generator.writeStringField("album", song.getAlbum());
+        if (song.getDuration() != null) {
+            generator.writeNumberField("duration", song.getDuration());
+        }
+        generator.writeStringField("playlist", playlist.getName());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,99 @@
+package com.musicapp.neteasemusic.service.export;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 扩展M3U（UTF-8）播放列表格式
+ */
+@Component
+public class M3u8ExportFormat implements ExportFormat {
+
+    static final String SONG_URL_PREFIX = "https://music.163.com/song/media/outer/url?id=";
+
+    @Override
+    public String getName() {
+        return "m3u8";
+    }
+
+    @Override
+    public String getContentType() {
+        return "audio/x-mpegurl; charset=utf-8";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "m3u8";
+    }
+
+    @Override
+    public void write(Playlist playlist, Iterator<Song> songs, int songCount, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("#EXTM3U\n");
+        writer.write("#PLAYLIST:" + singleLine(playlist.getName()) + "\n");
+
+        while (songs.hasNext()) {
+            writeSong(writer, songs.next());
+        }
+        writer.flush();
+    }
+
+    /**
+     * 所有歌单合并为一个播放列表，每个歌单开头用#EXTGRP标记分组，加载失败的歌单写为注释行
+     */
+    @Override
+    public AllPlaylistsWriter openAll(String username, int playlistCount, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("#EXTM3U\n");
+        writer.write("#PLAYLIST:" + singleLine(username) + " 的网易云音乐歌单\n");
+        writer.flush();
+        return new AllPlaylistsWriter() {
+            @Override
+            public void writePlaylist(Playlist playlist, List<Song> songs) throws IOException {
+                writer.write("#EXTGRP:" + singleLine(playlist.getName()) + "\n");
+                for (Song song : songs) {
+                    writeSong(writer, song);
+                }
+                writer.flush();
+            }
+
+            @Override
+            public void writeError(Playlist playlist, String message) throws IOException {
+                writer.write("# 歌单加载失败: " + singleLine(playlist.getName()) + ": " + singleLine(message) + "\n");
+                writer.flush();
+            }
+
+            @Override
+            public void finish() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    private void writeSong(Writer writer, Song song) throws IOException {
+        int seconds = song.getDuration() != null ? song.getDuration() / 1000 : -1;
+        writer.write("#EXTINF:" + seconds + "," + singleLine(song.getArtists()) + " - " + singleLine(song.getName()) + "\n");
+        writer.write(songLocation(song) + "\n");
+    }
+
+    static String songLocation(Song song) {
+        if (song.getMp3Url() != null && !song.getMp3Url().isEmpty()) {
+            return song.getMp3Url();
+        }
+        return SONG_URL_PREFIX + song.getNeteaseSongId() + ".mp3";
+    }
+
+    private String singleLine(String value) {
+        return value == null ? "" : value.replace('\r', ' ').replace('\n', ' ');
+    }
+}
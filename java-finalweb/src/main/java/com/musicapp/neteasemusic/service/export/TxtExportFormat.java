@@ -0,0 +1,154 @@
+package com.musicapp.neteasemusic.service.export;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.util.Utf8ByteWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 纯文本格式
+ * 通过Utf8ByteWriter直接写出UTF-8字节，每首歌曲不再经过String.format和字符串拼接
+ */
+@Component
+public class TxtExportFormat implements ExportFormat {
+
+    /**
+     * 导出时间格式，DateTimeFormatter线程安全，可在所有导出间共享
+     */
+    public static final DateTimeFormatter EXPORT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Override
+    public String getName() {
+        return "txt";
+    }
+
+    @Override
+    public String getContentType() {
+        return "text/plain; charset=utf-8";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "txt";
+    }
+
+    @Override
+    public void write(Playlist playlist, Iterator<Song> songs, int songCount, OutputStream out) throws IOException {
+        Utf8ByteWriter writer = new Utf8ByteWriter(out);
+
+        // 写入歌单信息
+        writer.write("===== 歌单信息 =====\n");
+        writer.write("歌单名称: ").write(playlist.getName()).write('\n');
+        if (playlist.getDescription() != null && !playlist.getDescription().isEmpty()) {
+            writer.write("歌单描述: ").write(playlist.getDescription()).write('\n');
+        }
+        writer.write("歌曲数量: ").writeInt(songCount).write('\n');
+        writer.write("导出时间: ").write(LocalDateTime.now().format(EXPORT_TIME_FORMAT)).write('\n');
+        writer.write("==================\n\n");
+
+        // 写入歌曲列表
+        writer.write("===== 歌曲列表 =====\n");
+        int index = 0;
+        while (songs.hasNext()) {
+            writeSong(writer, ++index, songs.next());
+        }
+        writer.write("==================\n");
+        writer.flush();
+    }
+
+    @Override
+    public AllPlaylistsWriter openAll(String username, int playlistCount, OutputStream out) throws IOException {
+        Utf8ByteWriter writer = new Utf8ByteWriter(out);
+        writeAllPlaylistsHeader(writer, username, playlistCount);
+        writer.flush();
+        return new AllPlaylistsWriter() {
+            @Override
+            public void writePlaylist(Playlist playlist, List<Song> songs) throws IOException {
+                writePlaylistSection(writer, playlist, songs);
+                writer.flush();
+            }
+
+            @Override
+            public void writeError(Playlist playlist, String message) throws IOException {
+                writePlaylistError(writer, playlist, message);
+                writer.flush();
+            }
+
+            @Override
+            public void finish() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    /**
+     * 写入所有歌单导出文件的文件头
+     */
+    public static void writeAllPlaylistsHeader(Utf8ByteWriter writer, String username, int playlistCount) throws IOException {
+        writer.write("===== 网易云音乐歌单导出 =====\n");
+        writer.write("用户: ").write(username).write('\n');
+        writer.write("导出时间: ").write(LocalDateTime.now().format(EXPORT_TIME_FORMAT)).write('\n');
+        writer.write("歌单总数: ").writeInt(playlistCount).write('\n');
+        writer.write("=========================\n\n");
+    }
+
+    /**
+     * 写入所有歌单导出文件中单个歌单的内容
+     */
+    public static void writePlaylistSection(Utf8ByteWriter writer, Playlist playlist, List<Song> songs) throws IOException {
+        // 添加歌单信息
+        writer.write("\n===== 歌单: ").write(playlist.getName()).write(" =====\n");
+        if (playlist.getDescription() != null && !playlist.getDescription().isEmpty()) {
+            writer.write("描述: ").write(playlist.getDescription()).write('\n');
+        }
+        writer.write("歌曲数量: ").writeInt(songs.size()).write('\n');
+        writer.write("=========================\n\n");
+
+        // 添加歌曲列表
+        for (int i = 0; i < songs.size(); i++) {
+            writeSong(writer, i + 1, songs.get(i));
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * 写入所有歌单导出文件中加载失败的歌单
+     */
+    public static void writePlaylistError(Utf8ByteWriter writer, Playlist playlist, String message) throws IOException {
+        writer.write("\n===== 歌单: ").write(playlist.getName()).write(" =====\n");
+        writer.write("加载失败: ").write(message).write('\n');
+        writer.write("=========================\n\n");
+    }
+
+    /**
+     * 写入一首歌曲，格式为：
+     * "序号. 歌名 - 歌手"，可选的"   专辑: "和"   时长: 分:秒"行，最后是一个空行
+     */
+    public static void writeSong(Utf8ByteWriter writer, int index, Song song) throws IOException {
+        writer.writeInt(index).write(". ").write(song.getName()).write(" - ").write(song.getArtists()).write('\n');
+        if (song.getAlbum() != null && !song.getAlbum().isEmpty()) {
+            writer.write("   专辑: ").write(song.getAlbum()).write('\n');
+        }
+        if (song.getDuration() != null) {
+            writer.write("   时长: ");
+            writeDuration(writer, song.getDuration());
+            writer.write('\n');
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * 写入时长（毫秒转换为分:秒）
+     */
+    public static void writeDuration(Utf8ByteWriter writer, int milliseconds) throws IOException {
+        int totalSeconds = milliseconds / 1000;
+        writer.writeInt(totalSeconds / 60).write(':').writeTwoDigits(totalSeconds % 60);
+    }
+}
@@ -0,0 +1,156 @@
+package com.musicapp.neteasemusic.service.export;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * XSPF（XML Shareable Playlist Format）格式
+ */
+@Component
+public class XspfExportFormat implements ExportFormat {
+
+    private static final String XSPF_NAMESPACE = "http://xspf.org/ns/0/";
+
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    @Override
+    public String getName() {
+        return "xspf";
+    }
+
+    @Override
+    public String getContentType() {
+        return "application/xspf+xml; charset=utf-8";
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "xspf";
+    }
+
+    @Override
+    public void write(Playlist playlist, Iterator<Song> songs, int songCount, OutputStream out) throws IOException {
+        try {
+            // XMLStreamWriter.close()不会关闭底层输出流
+            XMLStreamWriter xml = outputFactory.createXMLStreamWriter(out, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("playlist");
+            xml.writeDefaultNamespace(XSPF_NAMESPACE);
+            xml.writeAttribute("version", "1");
+            writeElement(xml, "title", playlist.getName());
+            writeElement(xml, "annotation", playlist.getDescription());
+            xml.writeStartElement("trackList");
+
+            while (songs.hasNext()) {
+                writeTrack(xml, songs.next(), null);
+            }
+
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write XSPF playlist", e);
+        }
+        out.flush();
+    }
+
+    /**
+     * XSPF一个文件只能有一个playlist，所有歌单的歌曲写在同一个trackList中，
+     * 每首歌曲的annotation记录所属歌单，加载失败的歌单写为XML注释
+     */
+    @Override
+    public AllPlaylistsWriter openAll(String username, int playlistCount, OutputStream out) throws IOException {
+        XMLStreamWriter xml;
+        try {
+            xml = outputFactory.createXMLStreamWriter(out, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("playlist");
+            xml.writeDefaultNamespace(XSPF_NAMESPACE);
+            xml.writeAttribute("version", "1");
+            writeElement(xml, "title", username + " 的网易云音乐歌单");
+            writeElement(xml, "creator", username);
+            xml.writeStartElement("trackList");
+            xml.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write XSPF playlist", e);
+        }
+        out.flush();
+        return new AllPlaylistsWriter() {
+            @Override
+            public void writePlaylist(Playlist playlist, List<Song> songs) throws IOException {
+                try {
+                    for (Song song : songs) {
+                        writeTrack(xml, song, playlist.getName());
+                    }
+                    xml.flush();
+                } catch (XMLStreamException e) {
+                    throw new IOException("Failed to write XSPF playlist", e);
+                }
+                out.flush();
+            }
+
+            @Override
+            public void writeError(Playlist playlist, String message) throws IOException {
+                try {
+                    // 注释中不能出现"--"
+                    xml.writeComment(" 歌单加载失败: " + (playlist.getName() + ": " + message).replaceAll("-(?=-)", "- ") + " ");
+                    xml.flush();
+                } catch (XMLStreamException e) {
+                    throw new IOException("Failed to write XSPF playlist", e);
+                }
+                out.flush();
+            }
+
+            @Override
+            public void finish() throws IOException {
+                try {
+                    xml.writeEndElement();
+                    xml.writeEndElement();
+                    xml.writeEndDocument();
+                    xml.flush();
+                    xml.close();
+                } catch (XMLStreamException e) {
+                    throw new IOException("Failed to write XSPF playlist", e);
+                }
+                out.flush();
+            }
+        };
+    }
+
+    /**
+     * @param annotation 歌曲的备注，所有歌单导出时为所属歌单名，为null时不写
+     */
+    private void writeTrack(XMLStreamWriter xml, Song song, String annotation) throws XMLStreamException {
+        xml.writeStartElement("track");
+        writeElement(xml, "location", M3u8ExportFormat.songLocation(song));
+        writeElement(xml, "identifier", "netease:song:" + song.getNeteaseSongId());
+        writeElement(xml, "title", song.getName());
+        writeElement(xml, "creator", song.getArtists());
+        writeElement(xml, "annotation", annotation);
+        writeElement(xml, "album", song.getAlbum());
+        if (song.getDuration() != null) {
+            writeElement(xml, "duration", Integer.toString(song.getDuration()));
+        }
+        xml.writeEndElement();
+    }
+
+    private void writeElement(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        xml.writeStartElement(name);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+}
@@ -6,6 +6,7 @@ import com.musicapp.neteasemusic.model.Song;
 import com.musicapp.neteasemusic.model.User;
 import com.musicapp.neteasemusic.repository.PlaylistRepository;
 import com.musicapp.neteasemusic.repository.SongRepository;
+import com.musicapp.neteasemusic.service.NeteaseSearchService;
 import com.musicapp.neteasemusic.service.PlaylistService;
 import com.musicapp.neteasemusic.util.NeteaseMusicApiClient;
 import org.slf4j.Logger;
@@ -33,6 +34,9 @@ public class PlaylistServiceImpl implements PlaylistService {
     @Autowired
     private NeteaseMusicApiClient neteaseMusicApiClient;
 
+    @Autowired
+    private NeteaseSearchService neteaseSearchService;
+
     @Override
     public Playlist getPlaylistById(Long id) {
         return playlistRepository.findById(id).orElse(null);
@@ -110,7 +114,7 @@ public class PlaylistServiceImpl implements PlaylistService {
 
     @Override
     public JsonNode searchNeteasePlaylists(String keyword, int limit, int offset) throws IOException {
-        return neteaseMusicApiClient.searchPlaylist(keyword, limit, offset);
+        return neteaseSearchService.searchPlaylists(keyword, limit, offset);
     }
 
     @Override
@@ -0,0 +1,29 @@
+package com.musicapp.neteasemusic.util;
+
+/**
+ * 导出任务提交被拒绝：用户同时进行的任务数已达上限，或导出线程池的队列已满
+ * 前者返回429，后者返回503，两者都带Retry-After（秒）
+ */
+public class ExportJobRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    private final boolean queueFull;
+
+    public ExportJobRejectedException(String message, long retryAfterSeconds, boolean queueFull) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.queueFull = queueFull;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * true表示所有用户共享的导出队列已满，false表示当前用户的任务数已达上限
+     */
+    public boolean isQueueFull() {
+        return queueFull;
+    }
+}
@@ -1,16 +1,24 @@
 package com.musicapp.neteasemusic.util;
 
+import com.musicapp.neteasemusic.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 @Component
 public class JwtUtils {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_ROLES = "roles";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -20,8 +28,21 @@ public class JwtUtils {
     public String generateJwtToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
 
-        return Jwts.builder()
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : userPrincipal.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
+                .claim(CLAIM_ROLES, roles);
+        if (userPrincipal instanceof UserDetailsImpl) {
+            UserDetailsImpl details = (UserDetailsImpl) userPrincipal;
+            builder.claim(CLAIM_USER_ID, details.getId())
+                    .claim(CLAIM_EMAIL, details.getEmail());
+        }
+
+        return builder
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
                 .signWith(SignatureAlgorithm.HS512, jwtSecret)
@@ -34,9 +55,15 @@ public class JwtUtils {
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseJwtClaims(authToken) != null;
+    }
+
+    /**
+     * 校验并解析令牌，一次解析同时得到用户名、用户ID和角色；令牌无效时返回null
+     */
+    public Claims parseJwtClaims(String authToken) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken).getBody();
         } catch (SignatureException e) {
             System.err.println("Invalid JWT signature: " + e.getMessage());
         } catch (MalformedJwtException e) {
@@ -49,6 +76,6 @@ public class JwtUtils {
             System.err.println("JWT claims string is empty: " + e.getMessage());
         }
 
-        return false;
+        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.musicapp.neteasemusic.util;
+
+import java.util.Arrays;
+
+/**
+ * 基本类型long到long的开放寻址哈希表（线性探测）
+ * 键和值分别存放在两个long数组中，没有装箱和Entry对象，每个槽位固定占用16字节；
+ * 键0用作空槽标记，不能作为键使用。不支持删除，非线程安全
+ */
+public class LongLongHashMap {
+
+    private static final long EMPTY_KEY = 0L;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int mask;
+
+    private int size;
+
+    private int resizeThreshold;
+
+    /**
+     * @param expectedSize 预计条目数，写入不超过该数量时不会扩容
+     */
+    public LongLongHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * 查找键对应的值，不存在时返回defaultValue
+     */
+    public long get(long key, long defaultValue) {
+        if (key == EMPTY_KEY) {
+            return defaultValue;
+        }
+        int index = indexFor(key);
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                return values[index];
+            }
+            if (current == EMPTY_KEY) {
+                return defaultValue;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY_KEY) {
+            return false;
+        }
+        int index = indexFor(key);
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                return true;
+            }
+            if (current == EMPTY_KEY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * 写入键值，已存在时覆盖
+     */
+    public void put(long key, long value) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int index = indexFor(key);
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                values[index] = value;
+                return;
+            }
+            if (current == EMPTY_KEY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > resizeThreshold) {
+                    resize();
+                }
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * 清空所有条目，保留已分配的数组以便复用
+     */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY_KEY);
+            size = 0;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 当前哈希表数组占用的字节数（不含对象头）
+     */
+    public long tableBytes() {
+        return (long) keys.length * 16;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        if (oldKeys.length >= MAX_CAPACITY) {
+            throw new IllegalStateException("LongLongHashMap is full");
+        }
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY_KEY) {
+                int index = indexFor(key);
+                while (keys[index] != EMPTY_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int indexFor(long key) {
+        // 网易云歌曲ID基本连续，先用MurmurHash3的fmix64打散，避免线性探测形成长簇
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(1, expectedSize) / (double) LOAD_FACTOR) + 1;
+        int capacity = 2;
+        while (capacity < needed && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
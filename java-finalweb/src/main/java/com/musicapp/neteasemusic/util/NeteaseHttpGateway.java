@@ -0,0 +1,382 @@
+package com.musicapp.neteasemusic.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 访问网易云音乐API的共享HTTP网关
+ * 所有上游请求共用一个连接池；OkHttp在未显式设置Accept-Encoding时会自动协商并解压gzip，
+ * 因此调用方不要自行添加该请求头。每次发送前都要经过NeteaseRateLimiter取得许可。
+ * 同步调用不经过OkHttp调度器的并发限制，同时在途的请求数由网关自己的信号量限制，
+ * 许可一直持有到调用方关闭响应体为止；一次调用连同重试不超过按操作配置的总时限。
+ * 每次尝试都记录到netease.upstream.requests计时器，按操作名和响应状态打标签
+ */
+@Component
+public class NeteaseHttpGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(NeteaseHttpGateway.class);
+
+    private static final String TIMEOUT_PROPERTY_PREFIX = "netease.http.timeout.";
+
+    private static final String DEADLINE_PROPERTY_PREFIX = "netease.http.deadline.";
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private NeteaseRateLimiter rateLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${netease.api.timeout}")
+    private int defaultTimeoutMs;
+
+    @Value("${netease.http.pool.max-idle:32}")
+    private int maxIdleConnections;
+
+    @Value("${netease.http.pool.keep-alive:300000}")
+    private long keepAliveMs;
+
+    @Value("${netease.http.max-in-flight:32}")
+    private int maxInFlight;
+
+    @Value("${netease.http.deadline:60000}")
+    private long defaultDeadlineMs;
+
+    @Value("${netease.http.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${netease.http.retry.base-backoff:200}")
+    private long baseBackoffMs;
+
+    @Value("${netease.http.retry.max-backoff:5000}")
+    private long maxBackoffMs;
+
+    private OkHttpClient client;
+
+    private Semaphore inFlight;
+
+    private final Map<String, OkHttpClient> operationClients = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> operationDeadlines = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight), true);
+        this.client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMs, TimeUnit.MILLISECONDS))
+                .connectTimeout(defaultTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(defaultTimeoutMs, TimeUnit.MILLISECONDS)
+                .callTimeout(defaultTimeoutMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    /**
+     * 执行一次上游请求，调用方负责关闭返回的Response
+     * GET请求在网络异常、429和5xx时按带抖动的指数退避重试；其他方法只执行一次。
+     * 所有尝试和退避等待共用一个总时限（netease.http.deadline.操作名），剩余时间不足以再等一次退避时不再重试。
+     * 限流排队超时、等待在途许可超时或重试后仍被上游限流时抛出UpstreamThrottledException
+     *
+     * @param operation 操作名，用于选择超时配置（netease.http.timeout.操作名）和日志
+     */
+    public Response execute(String operation, Request request) throws IOException {
+        OkHttpClient operationClient = clientFor(operation);
+        int attempts = "GET".equals(request.method()) ? Math.max(1, maxAttempts) : 1;
+        long deadline = System.currentTimeMillis() + deadlineFor(operation);
+        String cookie = request.header("Cookie");
+        String user = currentUser();
+
+        for (int attempt = 1; ; attempt++) {
+            long delay = 0;
+            NeteaseRateLimiter.Permit permit = acquire(operation, cookie, user);
+            Timer.Sample sample = null;
+            boolean slotHeld = false;
+            try {
+                acquireSlot(operation, deadline);
+                slotHeld = true;
+                Call call = operationClient.newCall(request);
+                // 单次尝试的超时不超过总时限的剩余部分
+                long remainingMs = remaining(operation, deadline);
+                if (call.timeout().timeoutNanos() == 0
+                        || TimeUnit.MILLISECONDS.toNanos(remainingMs) < call.timeout().timeoutNanos()) {
+                    call.timeout().timeout(remainingMs, TimeUnit.MILLISECONDS);
+                }
+                sample = Timer.start(meterRegistry);
+                Response response = call.execute();
+                // 响应体交给调用方后，在途许可随响应体关闭一起归还
+                response = response.newBuilder()
+                        .body(new SlotReleasingBody(response.body(), inFlight))
+                        .build();
+                slotHeld = false;
+                recordAttempt(sample, operation, String.valueOf(response.code()));
+                rateLimiter.release(permit, isRetryable(response.code())
+                        ? NeteaseRateLimiter.Outcome.THROTTLED : NeteaseRateLimiter.Outcome.SUCCESS);
+                if (!isRetryable(response.code())) {
+                    return response;
+                }
+                long retryAfterMs = parseRetryAfter(response.header("Retry-After"));
+                delay = backoffDelay(attempt, retryAfterMs);
+                if (attempt >= attempts || !fitsDeadline(delay, deadline)) {
+                    if (response.code() == 429) {
+                        response.close();
+                        throw new UpstreamThrottledException("Netease API rate limited " + operation
+                                + " after " + attempt + " attempts",
+                                TimeUnit.MILLISECONDS.toSeconds(Math.max(retryAfterMs, delay)), true);
+                    }
+                    return response;
+                }
+                logger.debug("Upstream {} returned {}, retrying (attempt {}/{})",
+                        operation, response.code(), attempt, attempts);
+                response.close();
+            } catch (UpstreamThrottledException e) {
+                throw e;
+            } catch (IOException e) {
+                if (sample != null) {
+                    recordAttempt(sample, operation, e instanceof SocketTimeoutException ? "TIMEOUT" : "IO_ERROR");
+                }
+                rateLimiter.release(permit, NeteaseRateLimiter.Outcome.FAILED);
+                // 整体调用超时或线程被中断时不再重试，单次读超时仍可重试
+                boolean callAborted = e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException);
+                delay = backoffDelay(attempt, 0);
+                if (attempt >= attempts || callAborted || Thread.currentThread().isInterrupted()
+                        || !fitsDeadline(delay, deadline)) {
+                    throw e;
+                }
+                logger.debug("Upstream {} failed: {}, retrying (attempt {}/{})",
+                        operation, e.getMessage(), attempt, attempts);
+            } finally {
+                if (slotHeld) {
+                    inFlight.release();
+                }
+                // 已按结果归还过的许可不会重复归还，这里只兜底未预期的运行时异常
+                rateLimiter.release(permit, NeteaseRateLimiter.Outcome.FAILED);
+            }
+            sleep(delay);
+        }
+    }
+
+    /**
+     * 在总时限内等待一个在途许可，等不到时按本地过载处理
+     */
+    private void acquireSlot(String operation, long deadline) throws IOException {
+        try {
+            if (!inFlight.tryAcquire(remaining(operation, deadline), TimeUnit.MILLISECONDS)) {
+                throw new UpstreamThrottledException("Too many in-flight Netease API calls, gave up waiting for "
+                        + operation, 1, false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an in-flight slot");
+        }
+    }
+
+    /**
+     * 总时限的剩余毫秒数，已经用完时抛出InterruptedIOException，与OkHttp整体调用超时的异常类型一致
+     */
+    private long remaining(String operation, long deadline) throws InterruptedIOException {
+        long remainingMs = deadline - System.currentTimeMillis();
+        if (remainingMs <= 0) {
+            throw new InterruptedIOException("Netease API deadline exceeded for " + operation);
+        }
+        return remainingMs;
+    }
+
+    /**
+     * 退避等待之后是否还留有时间发起下一次尝试
+     */
+    private boolean fitsDeadline(long delay, long deadline) {
+        return System.currentTimeMillis() + delay < deadline;
+    }
+
+    /**
+     * 取得限流许可，并记录排队等待时间；排队超时被拒绝的请求单独计数
+     */
+    private NeteaseRateLimiter.Permit acquire(String operation, String cookie, String user) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "acquired";
+        try {
+            return rateLimiter.acquire(cookie, user);
+        } catch (IOException e) {
+            outcome = e instanceof UpstreamThrottledException ? "rejected" : "interrupted";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("netease.upstream.rate-limit.wait")
+                    .description("Time spent waiting for a Netease API rate limit permit")
+                    .tag("endpoint", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void recordAttempt(Timer.Sample sample, String operation, String status) {
+        sample.stop(Timer.builder("netease.upstream.requests")
+                .description("Netease API call attempts")
+                .tag("endpoint", operation)
+                .tag("status", status)
+                .register(meterRegistry));
+    }
+
+    /**
+     * 当前请求线程上已认证的用户名，用于按用户限流；后台线程没有认证信息时返回null
+     */
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * 连接池和在途请求的统计信息
+     */
+    public Map<String, Integer> getStats() {
+        Map<String, Integer> stats = new LinkedHashMap<>();
+        stats.put("connections", client.connectionPool().connectionCount());
+        stats.put("idleConnections", client.connectionPool().idleConnectionCount());
+        stats.put("inFlightCalls", Math.max(0, maxInFlight) - inFlight.availablePermits());
+        stats.put("waitingCalls", inFlight.getQueueLength());
+        return stats;
+    }
+
+    /**
+     * 按操作名派生客户端；newBuilder()派生出的客户端共享同一个连接池
+     */
+    private OkHttpClient clientFor(String operation) {
+        return operationClients.computeIfAbsent(operation, op -> {
+            String configured = environment.getProperty(TIMEOUT_PROPERTY_PREFIX + op);
+            if (configured == null) {
+                return client;
+            }
+            long timeoutMs = Long.parseLong(configured.trim());
+            return client.newBuilder()
+                    .readTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .callTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .build();
+        });
+    }
+
+    /**
+     * 操作的总时限（毫秒），未单独配置时使用netease.http.deadline
+     */
+    private long deadlineFor(String operation) {
+        return operationDeadlines.computeIfAbsent(operation, op -> {
+            String configured = environment.getProperty(DEADLINE_PROPERTY_PREFIX + op);
+            return configured == null ? defaultDeadlineMs : Long.parseLong(configured.trim());
+        });
+    }
+
+    private boolean isRetryable(int code) {
+        return code == 429 || code >= 500;
+    }
+
+    /**
+     * 解析以秒为单位的Retry-After，不支持HTTP日期格式，无法解析时返回0
+     */
+    private long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private long backoffDelay(int attempt, long retryAfterMs) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        // 上游给出Retry-After时至少等待该时长，但不超过最大退避时间
+        return Math.max(delay, Math.min(retryAfterMs, maxBackoffMs));
+    }
+
+    private void sleep(long delay) throws IOException {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+
+    /**
+     * 包装响应体，关闭时归还在途许可；重复关闭只归还一次
+     */
+    private static final class SlotReleasingBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        SlotReleasingBody(ResponseBody delegate, Semaphore inFlight) {
+            this.delegate = delegate;
+            AtomicBoolean released = new AtomicBoolean();
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            inFlight.release();
+                        }
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.musicapp.neteasemusic.util;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import okhttp3.OkHttpClient;
+import okhttp3.HttpUrl;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.slf4j.Logger;
@@ -11,17 +11,22 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.Map;
 
 @Component
 public class NeteaseMusicApiClient {
 
     private static final Logger logger = LoggerFactory.getLogger(NeteaseMusicApiClient.class);
-    private final OkHttpClient httpClient;
+    private final NeteaseHttpGateway httpGateway;
     private final ObjectMapper objectMapper;
     private final String baseUrl;
 
-    public NeteaseMusicApiClient(@Value("${netease.music.api.url}") String baseUrl) {
-        this.httpClient = new OkHttpClient();
+    // 同一歌单详情的并发请求合并为一次上游调用，返回的JsonNode只读共享
+    private final SingleFlight<Long, JsonNode> playlistDetailFlight = new SingleFlight<>();
+
+    public NeteaseMusicApiClient(NeteaseHttpGateway httpGateway,
+                                 @Value("${netease.music.api.url:${netease.api.url}}") String baseUrl) {
+        this.httpGateway = httpGateway;
         this.objectMapper = new ObjectMapper();
         this.baseUrl = baseUrl;
     }
@@ -30,16 +35,26 @@ public class NeteaseMusicApiClient {
      * 获取歌单详情
      */
     public JsonNode getPlaylistDetail(long playlistId) throws IOException {
+        return playlistDetailFlight.execute(playlistId, () -> fetchPlaylistDetail(playlistId));
+    }
+
+    /**
+     * 歌单详情请求的合并统计
+     */
+    public Map<String, Long> getCoalescingStats() {
+        return playlistDetailFlight.getStats();
+    }
+
+    private JsonNode fetchPlaylistDetail(long playlistId) throws IOException {
         String url = baseUrl + "/playlist/detail?id=" + playlistId;
         Request request = new Request.Builder().url(url).build();
         
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = httpGateway.execute("playlist-detail", request)) {
             if (!response.isSuccessful()) {
                 throw new IOException("Unexpected response: " + response);
             }
             
-            String responseBody = response.body().string();
-            return objectMapper.readTree(responseBody);
+            return objectMapper.readTree(response.body().byteStream());
         }
     }
 
@@ -50,13 +65,12 @@ public class NeteaseMusicApiClient {
         String url = baseUrl + "/user/playlist?uid=" + userId;
         Request request = new Request.Builder().url(url).build();
         
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = httpGateway.execute("user-playlist", request)) {
             if (!response.isSuccessful()) {
                 throw new IOException("Unexpected response: " + response);
             }
             
-            String responseBody = response.body().string();
-            return objectMapper.readTree(responseBody);
+            return objectMapper.readTree(response.body().byteStream());
         }
     }
 
@@ -64,16 +78,21 @@ public class NeteaseMusicApiClient {
      * 搜索歌单
      */
     public JsonNode searchPlaylist(String keyword, int limit, int offset) throws IOException {
-        String url = baseUrl + "/search?keywords=" + keyword + "&type=1000&limit=" + limit + "&offset=" + offset;
+        // 关键词可能包含中文、空格和&等字符，必须编码后再拼入查询参数
+        HttpUrl url = HttpUrl.get(baseUrl + "/search").newBuilder()
+                .addQueryParameter("keywords", keyword)
+                .addQueryParameter("type", "1000")
+                .addQueryParameter("limit", String.valueOf(limit))
+                .addQueryParameter("offset", String.valueOf(offset))
+                .build();
         Request request = new Request.Builder().url(url).build();
         
-        try (Response response = httpClient.newCall(request).execute()) {
+        try (Response response = httpGateway.execute("search", request)) {
             if (!response.isSuccessful()) {
                 throw new IOException("Unexpected response: " + response);
             }
             
-            String responseBody = response.body().string();
-            return objectMapper.readTree(responseBody);
+            return objectMapper.readTree(response.body().byteStream());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,318 @@
+package com.musicapp.neteasemusic.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 网易云API的自适应限流
+ * 每次上游请求需要同时从全局、所属Cookie和所属用户三个令牌桶各取一个令牌，并占用一个并发名额；
+ * 并发上限按AIMD调整：遇到429/5xx、网络异常或慢响应时减半，正常响应时缓慢增加。
+ * 拿不到令牌或名额的调用方排队等待，超过最长等待时间才失败。
+ * Cookie和用户的令牌桶各自最多保留max-tracked-keys个，超出时淘汰最久未使用的桶；Cookie桶以Cookie的摘要为键，不保存原文
+ */
+@Component
+public class NeteaseRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NeteaseRateLimiter.class);
+
+    /**
+     * 请求结果，用于调整并发上限
+     */
+    public enum Outcome {
+        SUCCESS, THROTTLED, FAILED
+    }
+
+    @Value("${netease.rate-limit.global.rate:20}")
+    private double globalRate;
+
+    @Value("${netease.rate-limit.global.burst:40}")
+    private int globalBurst;
+
+    @Value("${netease.rate-limit.cookie.rate:10}")
+    private double cookieRate;
+
+    @Value("${netease.rate-limit.cookie.burst:20}")
+    private int cookieBurst;
+
+    @Value("${netease.rate-limit.user.rate:10}")
+    private double userRate;
+
+    @Value("${netease.rate-limit.user.burst:20}")
+    private int userBurst;
+
+    @Value("${netease.rate-limit.concurrency.initial:16}")
+    private int initialConcurrency;
+
+    @Value("${netease.rate-limit.concurrency.min:2}")
+    private int minConcurrency;
+
+    @Value("${netease.rate-limit.concurrency.max:64}")
+    private int maxConcurrency;
+
+    @Value("${netease.rate-limit.slow-threshold:3000}")
+    private long slowThresholdMs;
+
+    @Value("${netease.rate-limit.max-wait:10000}")
+    private long maxWaitMs;
+
+    @Value("${netease.rate-limit.max-tracked-keys:10000}")
+    private int maxTrackedKeys;
+
+    // 令牌桶和并发状态都由lock保护，等待的调用方在lock上等待
+    private final Object lock = new Object();
+
+    private TokenBucket globalBucket;
+
+    // 按访问顺序排列，最久未使用的桶在最前面
+    private final Map<String, TokenBucket> cookieBuckets = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<String, TokenBucket> userBuckets = new LinkedHashMap<>(16, 0.75f, true);
+
+    private double concurrencyLimit;
+
+    private int inFlight;
+
+    private long lastDecreaseNanos;
+
+    private final AtomicLong acquired = new AtomicLong();
+
+    private final AtomicLong queued = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong decreases = new AtomicLong();
+
+    private final AtomicLong evictedBuckets = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        long now = System.nanoTime();
+        globalBucket = new TokenBucket(globalRate, globalBurst, now);
+        concurrencyLimit = Math.max(minConcurrency, Math.min(maxConcurrency, initialConcurrency));
+        lastDecreaseNanos = now - TimeUnit.MILLISECONDS.toNanos(slowThresholdMs) - 1;
+    }
+
+    /**
+     * 获取一次上游请求的许可，必要时排队等待；请求结束后必须调用release
+     *
+     * @param cookie 请求携带的Cookie，为null时不做按Cookie限流
+     * @param user   发起请求的用户，为null时不做按用户限流
+     */
+    public Permit acquire(String cookie, String user) throws UpstreamThrottledException, InterruptedIOException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        boolean waited = false;
+        String cookieKey = cookie != null ? cookieKey(cookie) : null;
+
+        synchronized (lock) {
+            TokenBucket cookieBucket = cookieKey != null ? bucketFor(cookieBuckets, cookieKey, cookieRate, cookieBurst, start) : null;
+            TokenBucket userBucket = user != null ? bucketFor(userBuckets, user, userRate, userBurst, start) : null;
+
+            while (true) {
+                long now = System.nanoTime();
+                long waitNanos;
+                if (inFlight >= (int) concurrencyLimit) {
+                    // 并发已满，等待其他请求释放名额
+                    waitNanos = Long.MAX_VALUE;
+                } else {
+                    waitNanos = Math.max(globalBucket.nanosUntilToken(now),
+                            Math.max(nanosUntilToken(cookieBucket, now), nanosUntilToken(userBucket, now)));
+                }
+
+                if (waitNanos == 0) {
+                    globalBucket.take();
+                    if (cookieBucket != null) {
+                        cookieBucket.take();
+                    }
+                    if (userBucket != null) {
+                        userBucket.take();
+                    }
+                    inFlight++;
+                    acquired.incrementAndGet();
+                    if (waited) {
+                        queued.incrementAndGet();
+                    }
+                    return new Permit(now);
+                }
+
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    rejected.incrementAndGet();
+                    throw new UpstreamThrottledException("Netease API is busy, please try again later (waited "
+                            + TimeUnit.NANOSECONDS.toMillis(now - start) + " ms)",
+                            TimeUnit.MILLISECONDS.toSeconds(maxWaitMs + 999), false);
+                }
+                waited = true;
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, Math.min(waitNanos, remaining));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for Netease API rate limit");
+                }
+            }
+        }
+    }
+
+    /**
+     * 归还许可，并根据请求结果和耗时调整并发上限
+     */
+    public void release(Permit permit, Outcome outcome) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        long now = System.nanoTime();
+        boolean slow = now - permit.startNanos > TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+
+        synchronized (lock) {
+            inFlight--;
+            if (outcome != Outcome.SUCCESS || slow) {
+                // 同一批并发请求往往一起失败，冷却期内只减一次，避免上限被连续减到最低
+                if (now - lastDecreaseNanos > TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)) {
+                    double previous = concurrencyLimit;
+                    concurrencyLimit = Math.max(minConcurrency, concurrencyLimit / 2);
+                    lastDecreaseNanos = now;
+                    decreases.incrementAndGet();
+                    logger.debug("Netease API concurrency limit {} -> {} after {} response",
+                            (int) previous, (int) concurrencyLimit, slow ? "slow" : outcome);
+                }
+                if (outcome == Outcome.THROTTLED) {
+                    // 上游明确限流时清空全局令牌，让后续请求稍作停顿
+                    globalBucket.drain(now);
+                }
+            } else {
+                // 每个成功请求增加1/limit，约每轮并发整体加一
+                concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1.0 / concurrencyLimit);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 限流器状态：当前并发上限与占用、累计放行、排队后放行、超时拒绝和降低并发的次数，以及令牌桶的数量和淘汰次数
+     */
+    public Map<String, Number> getStats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        synchronized (lock) {
+            stats.put("concurrencyLimit", (int) concurrencyLimit);
+            stats.put("inFlight", inFlight);
+            stats.put("trackedCookies", cookieBuckets.size());
+            stats.put("trackedUsers", userBuckets.size());
+        }
+        stats.put("acquired", acquired.get());
+        stats.put("queued", queued.get());
+        stats.put("rejected", rejected.get());
+        stats.put("limitDecreases", decreases.get());
+        stats.put("evictedBuckets", evictedBuckets.get());
+        return stats;
+    }
+
+    private long nanosUntilToken(TokenBucket bucket, long now) {
+        return bucket != null ? bucket.nanosUntilToken(now) : 0;
+    }
+
+    private TokenBucket bucketFor(Map<String, TokenBucket> buckets, String key, double rate, int burst, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            evictLeastRecentlyUsed(buckets);
+            bucket = new TokenBucket(rate, burst, now);
+            buckets.put(key, bucket);
+        }
+        return bucket;
+    }
+
+    /**
+     * 桶数达到上限时淘汰最久未使用的桶，不论是否已回满；
+     * 被淘汰的键再次出现时得到一个满桶，最多多放行一个突发量，换来内存有界
+     */
+    private void evictLeastRecentlyUsed(Map<String, TokenBucket> buckets) {
+        Iterator<TokenBucket> iterator = buckets.values().iterator();
+        while (buckets.size() >= Math.max(1, maxTrackedKeys) && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictedBuckets.incrementAndGet();
+        }
+    }
+
+    /**
+     * 用Cookie的摘要作为桶的键，限流器中不保存Cookie原文
+     */
+    private static String cookieKey(String cookie) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(cookie.getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(32);
+            for (int i = 0; i < 16; i++) {
+                key.append(String.format("%02x", hash[i]));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * 一次上游请求占用的许可
+     */
+    public static class Permit {
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * 令牌桶，非线程安全，由外层lock保护
+     */
+    private static class TokenBucket {
+        private final double ratePerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos;
+
+        TokenBucket(double ratePerSecond, int burst, long now) {
+            this.ratePerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+            this.lastRefillNanos = now;
+        }
+
+        long nanosUntilToken(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / ratePerNano));
+        }
+
+        void take() {
+            tokens -= 1;
+        }
+
+        void drain(long now) {
+            refill(now);
+            tokens = Math.min(tokens, 0);
+        }
+
+        private void refill(long now) {
+            if (now > lastRefillNanos) {
+                tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerNano);
+                lastRefillNanos = now;
+            }
+        }
+    }
+}
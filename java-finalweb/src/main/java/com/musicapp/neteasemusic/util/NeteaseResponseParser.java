@@ -0,0 +1,226 @@
+package com.musicapp.neteasemusic.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 网易云音乐API响应的流式解析器
+ * 直接从响应流逐个读取token并构建Song/Playlist对象，不生成完整的字符串和JsonNode树；
+ * 未使用的字段（privileges、ar/al中除name和picUrl以外的内容等）直接跳过
+ */
+public class NeteaseResponseParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private NeteaseResponseParser() {
+    }
+
+    /**
+     * 读取/playlist/track/all响应中的songs数组
+     */
+    public static List<Song> readSongs(InputStream in) throws IOException {
+        List<Song> songs = new ArrayList<>();
+        readSongs(in, songs::add);
+        return songs;
+    }
+
+    /**
+     * 读取songs数组，每解析出一首歌曲就交给consumer
+     */
+    public static void readSongs(InputStream in, Consumer<Song> consumer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (moveToTopLevelValue(parser, "songs", JsonToken.START_ARRAY)) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    consumer.accept(readSong(parser));
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取/user/playlist响应中的playlist数组
+     */
+    public static List<Playlist> readPlaylists(InputStream in) throws IOException {
+        List<Playlist> playlists = new ArrayList<>();
+        readPlaylists(in, playlists::add);
+        return playlists;
+    }
+
+    /**
+     * 读取playlist数组，每解析出一个歌单就交给consumer
+     */
+    public static void readPlaylists(InputStream in, Consumer<Playlist> consumer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (moveToTopLevelValue(parser, "playlist", JsonToken.START_ARRAY)) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    consumer.accept(readPlaylist(parser));
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取/playlist/detail响应中的歌单信息，tracks等歌曲字段直接跳过；响应中没有歌单时返回null
+     */
+    public static Playlist readPlaylistDetail(InputStream in) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (moveToTopLevelValue(parser, "playlist", JsonToken.START_OBJECT)) {
+                return readPlaylist(parser);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 将解析器移动到顶层对象中指定字段的值（START_ARRAY或START_OBJECT）处，不存在时返回false
+     */
+    private static boolean moveToTopLevelValue(JsonParser parser, String fieldName, JsonToken type) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (fieldName.equals(name) && value == type) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static Song readSong(JsonParser parser) throws IOException {
+        Song song = new Song();
+        song.setName("");
+        song.setArtists("");
+        song.setAlbum("");
+        song.setCoverUrl("");
+        song.setDuration(0);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "id":
+                    long id = parser.getValueAsLong(0);
+                    song.setNeteaseSongId(id > 0 ? id : null);
+                    break;
+                case "name":
+                    song.setName(parser.getValueAsString(""));
+                    break;
+                case "dt":
+                    song.setDuration(parser.getValueAsInt(0));
+                    break;
+                case "ar":
+                    if (value == JsonToken.START_ARRAY) {
+                        song.setArtists(readArtistNames(parser));
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "al":
+                    if (value == JsonToken.START_OBJECT) {
+                        readAlbum(parser, song);
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return song;
+    }
+
+    /**
+     * 读取ar数组中的艺术家名称，以"/"连接
+     */
+    private static String readArtistNames(JsonParser parser) throws IOException {
+        StringBuilder artists = new StringBuilder();
+        boolean first = true;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String artistName = "";
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("name".equals(name)) {
+                        artistName = parser.getValueAsString("");
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+            if (!first) {
+                artists.append('/');
+            }
+            artists.append(artistName);
+            first = false;
+        }
+        return artists.toString();
+    }
+
+    private static void readAlbum(JsonParser parser, Song song) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if ("name".equals(name)) {
+                song.setAlbum(parser.getValueAsString(""));
+            } else if ("picUrl".equals(name)) {
+                song.setCoverUrl(parser.getValueAsString(""));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static Playlist readPlaylist(JsonParser parser) throws IOException {
+        Playlist playlist = new Playlist();
+        playlist.setNeteasePlaylistId("");
+        playlist.setName("");
+        playlist.setDescription("");
+        playlist.setCoverUrl("");
+        playlist.setTrackCount(0);
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "id":
+                    playlist.setNeteasePlaylistId(parser.getValueAsString(""));
+                    break;
+                case "name":
+                    playlist.setName(parser.getValueAsString(""));
+                    break;
+                case "description":
+                    playlist.setDescription(parser.getValueAsString(""));
+                    break;
+                case "coverImgUrl":
+                    playlist.setCoverUrl(parser.getValueAsString(""));
+                    break;
+                case "trackCount":
+                    playlist.setTrackCount(parser.getValueAsInt(0));
+                    break;
+                case "updateTime":
+                    if (value != JsonToken.VALUE_NULL) {
+                        playlist.setNeteaseUpdateTime(parser.getValueAsLong());
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return playlist;
+    }
+}
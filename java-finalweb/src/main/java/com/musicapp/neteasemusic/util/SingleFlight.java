@@ -0,0 +1,94 @@
+package com.musicapp.neteasemusic.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 同键请求合并：同一个键同时只有一次加载在进行，期间到达的请求等待并共享这次加载的结果或异常
+ * 加载完成后立即移除，不缓存结果，之后的请求会重新加载
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final AtomicLong executions = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * 加载逻辑
+     */
+    public interface Loader<V> {
+        V load() throws IOException;
+    }
+
+    public V execute(K key, Loader<V> loader) throws IOException {
+        requests.incrementAndGet();
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(key, existing);
+        }
+
+        executions.incrementAndGet();
+        try {
+            V value = loader.load();
+            future.complete(value);
+            return value;
+        } catch (IOException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 请求数、实际加载次数和被合并的请求数；被合并的请求数即节省的上游调用次数
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.get());
+        stats.put("executions", executions.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("inFlight", (long) inFlight.size());
+        return stats;
+    }
+
+    private V await(K key, CompletableFuture<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for " + key);
+            interrupted.initCause(e);
+            throw interrupted;
+        } catch (ExecutionException e) {
+            // 包装一层，保留当前调用方的堆栈
+            Throwable cause = e.getCause();
+            if (cause instanceof UpstreamThrottledException) {
+                throw new UpstreamThrottledException((UpstreamThrottledException) cause);
+            }
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
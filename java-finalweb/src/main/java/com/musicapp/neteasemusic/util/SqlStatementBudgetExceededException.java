@@ -0,0 +1,34 @@
+package com.musicapp.neteasemusic.util;
+
+/**
+ * 请求执行的SQL语句数超出接口预算
+ * 只在sql.budget.fail-on-exceed为true时（test环境）由预算拦截器抛出，不经过控制器的异常处理，测试可以直接捕获
+ */
+public class SqlStatementBudgetExceededException extends RuntimeException {
+
+    private final String endpoint;
+
+    private final int count;
+
+    private final int limit;
+
+    public SqlStatementBudgetExceededException(String endpoint, int count, int limit) {
+        super("SQL statement budget exceeded for " + endpoint + ": " + count + " statements executed, "
+                + limit + " allowed");
+        this.endpoint = endpoint;
+        this.count = count;
+        this.limit = limit;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
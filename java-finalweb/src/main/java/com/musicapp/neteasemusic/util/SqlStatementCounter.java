@@ -0,0 +1,164 @@
+package com.musicapp.neteasemusic.util;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 按线程统计SQL语句的执行次数
+ * 通过包装DataSource拦截Statement的execute系列方法，JPA和JdbcTemplate发出的语句都会被统计，
+ * 批量执行按一次数据库往返计数。只统计调用过begin()的线程，线程池中执行的语句不计入发起它的请求
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Budget> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * 开始统计当前线程的SQL语句
+     *
+     * @param endpoint 统计对象的名称，用于日志和错误信息
+     * @param limit    语句数预算
+     */
+    public static void begin(String endpoint, int limit) {
+        CURRENT.set(new Budget(endpoint, limit));
+    }
+
+    /**
+     * 当前线程的统计，未在统计时返回null
+     */
+    public static Budget current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 结束统计并返回结果，当前线程未在统计时返回null
+     */
+    public static Budget end() {
+        Budget budget = CURRENT.get();
+        CURRENT.remove();
+        return budget;
+    }
+
+    /**
+     * 包装DataSource，取得的Connection以及由它创建的Statement都会被统计
+     * 包装类实现Closeable并转发close()，容器关闭时连接池仍能通过推断的销毁方法正常关闭
+     */
+    public static DataSource wrap(DataSource dataSource) {
+        return new CountingDataSource(dataSource);
+    }
+
+    private static Object proxy(Object target, Class<?> type) {
+        return Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                new CountingHandler(target));
+    }
+
+    private static void count() {
+        Budget budget = CURRENT.get();
+        if (budget != null) {
+            budget.count++;
+        }
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource implements Closeable {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return (Connection) proxy(super.getConnection(), Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return (Connection) proxy(super.getConnection(username, password), Connection.class);
+        }
+
+        @Override
+        public void close() throws IOException {
+            DataSource target = getTargetDataSource();
+            if (!(target instanceof AutoCloseable)) {
+                return;
+            }
+            try {
+                ((AutoCloseable) target).close();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to close data source", e);
+            }
+        }
+    }
+
+    private static class CountingHandler implements InvocationHandler {
+        private final Object target;
+
+        CountingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                count();
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            // Connection和各类Statement继续包装，其余返回值（ResultSet等）原样返回
+            Class<?> returnType = method.getReturnType();
+            if (result != null && (returnType == Connection.class || Statement.class.isAssignableFrom(returnType))) {
+                return proxy(result, returnType);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 一次统计的预算和已执行的语句数
+     */
+    public static class Budget {
+        private final String endpoint;
+        private final int limit;
+        private int count;
+
+        Budget(String endpoint, int limit) {
+            this.endpoint = endpoint;
+            this.limit = limit;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public boolean isExceeded() {
+            return count > limit;
+        }
+    }
+}
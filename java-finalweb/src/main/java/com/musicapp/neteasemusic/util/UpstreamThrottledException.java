@@ -0,0 +1,40 @@
+package com.musicapp.neteasemusic.util;
+
+import java.io.IOException;
+
+/**
+ * 网易云API限流：本地排队超过最长等待时间，或上游重试后仍返回429
+ * 本地限流时接口返回429，上游限流时返回503，两者都带Retry-After（秒）
+ */
+public class UpstreamThrottledException extends IOException {
+
+    private final long retryAfterSeconds;
+
+    private final boolean upstream;
+
+    public UpstreamThrottledException(String message, long retryAfterSeconds, boolean upstream) {
+        super(message);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.upstream = upstream;
+    }
+
+    /**
+     * 在其他线程上抛出的异常转交给当前调用方时使用，保留原异常的重试时间和来源
+     */
+    public UpstreamThrottledException(UpstreamThrottledException cause) {
+        super(cause.getMessage(), cause);
+        this.retryAfterSeconds = cause.retryAfterSeconds;
+        this.upstream = cause.upstream;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * true表示上游返回了429，false表示本地限流器或在途请求数已满
+     */
+    public boolean isUpstream() {
+        return upstream;
+    }
+}
@@ -0,0 +1,137 @@
+package com.musicapp.neteasemusic.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 直接把字符和数字编码为UTF-8写入可复用字节缓冲区的写出器，缓冲区满时写到底层输出流
+ * 不经过String.format、OutputStreamWriter等中间对象；无法配对的代理字符按'?'输出，与OutputStreamWriter一致
+ */
+public class Utf8ByteWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    public Utf8ByteWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public Utf8ByteWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(16, bufferSize)];
+    }
+
+    /**
+     * 写入字符串，null按"null"写入（与字符串拼接的行为一致）
+     */
+    public Utf8ByteWriter write(String value) throws IOException {
+        if (value == null) {
+            value = "null";
+        }
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                ensureCapacity(1);
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                ensureCapacity(2);
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensureCapacity(4);
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                ensureCapacity(1);
+                buffer[position++] = '?';
+            } else {
+                ensureCapacity(3);
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 写入单个ASCII字符
+     */
+    public Utf8ByteWriter write(char c) throws IOException {
+        if (c >= 0x80) {
+            return write(String.valueOf(c));
+        }
+        ensureCapacity(1);
+        buffer[position++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * 以十进制写入整数，不创建临时字符串
+     */
+    public Utf8ByteWriter writeInt(int value) throws IOException {
+        if (value < 0) {
+            if (value == Integer.MIN_VALUE) {
+                return write(Integer.toString(value));
+            }
+            write('-');
+            value = -value;
+        }
+        ensureCapacity(10);
+        int digits = digitCount(value);
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+        return this;
+    }
+
+    /**
+     * 以至少两位的十进制写入非负整数，不足两位时补0
+     */
+    public Utf8ByteWriter writeTwoDigits(int value) throws IOException {
+        if (value >= 0 && value < 10) {
+            write('0');
+        }
+        return writeInt(value);
+    }
+
+    /**
+     * 把缓冲区写到底层输出流并flush
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private static int digitCount(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -40,6 +40,16 @@ const api = {
         }
     },
 
+    // 获取用户歌单摘要列表（仪表盘使用，一次请求返回所有歌单）
+    getUserPlaylistSummaries: async function() {
+        try {
+            const response = await axios.get(`${this.baseUrl}/playlist/user/summary`);
+            return response.data;
+        } catch (error) {
+            throw this.handleError(error);
+        }
+    },
+
     // 获取歌单详情
     getPlaylistDetails: async function(playlistId) {
         try {
@@ -73,7 +83,23 @@ const api = {
     // 搜索网易云歌单
     searchNeteasePlaylists: async function(keyword) {
         try {
-            const response = await axios.get(`${this.baseUrl}/playlists/search?keyword=${encodeURIComponent(keyword)}`);
+            const response = await axios.get(`${this.baseUrl}/playlist/search`, { params: { keyword } });
+            return response.data;
+        } catch (error) {
+            throw this.handleError(error);
+        }
+    },
+
+    // 搜索网易云歌单，只返回歌单数组
+    searchPlaylists: async function(keyword) {
+        const data = await this.searchNeteasePlaylists(keyword);
+        return (data && data.result && data.result.playlists) || [];
+    },
+
+    // 按网易云歌单ID批量导入歌单，返回每个歌单的导入结果
+    importPlaylists: async function(playlistIds) {
+        try {
+            const response = await axios.post(`${this.baseUrl}/playlist/import`, { playlistIds });
             return response.data;
         } catch (error) {
             throw this.handleError(error);
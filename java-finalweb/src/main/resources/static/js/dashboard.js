@@ -13,7 +13,7 @@ const dashboard = {
         // 显示加载状态
         this.showLoading();
 
-        api.getUserPlaylists()
+        api.getUserPlaylistSummaries()
             .then(playlists => {
                 this.renderPlaylists(playlists);
                 this.hideLoading();
@@ -37,7 +37,8 @@ const dashboard = {
             // 有歌单，隐藏空状态提示
             emptyPlaylistsElement.classList.add('d-none');
 
-            // 渲染歌单列表
+            // 渲染歌单列表，整体插入一次，避免逐个卡片触发重排
+            const fragment = document.createDocumentFragment();
             playlists.forEach(playlist => {
                 const card = document.createElement('div');
                 card.className = 'col-md-4 mb-4';
@@ -45,7 +46,7 @@ const dashboard = {
                     <div class="card h-100">
                         <div class="card-body">
                             <div class="d-flex justify-content-between align-items-start">
-                                <h5 class="card-title">${playlist.name}</h5>
+                                <h5 class="card-title"></h5>
                                 <div class="dropdown">
                                     <button class="btn btn-sm btn-outline-secondary dropdown-toggle" type="button" id="dropdownMenuButton${playlist.id}" data-bs-toggle="dropdown" aria-expanded="false">
                                         <svg xmlns="http://www.w3.org/2000/svg" width="16" height="16" fill="currentColor" class="bi bi-three-dots-vertical" viewBox="0 0 16 16">
@@ -57,12 +58,11 @@ const dashboard = {
                                     </ul>
                                 </div>
                             </div>
-                            <p class="card-text">${playlist.description ? playlist.description.substring(0, 100) + '...' : '暂无描述'}</p>
                             <p class="card-text">
-                                <small class="text-muted">歌曲数量: ${playlist.songCount || 0}</small>
+                                <small class="text-muted">歌曲数量: ${playlist.trackCount || 0}</small>
                             </p>
                             <p class="card-text">
-                                <small class="text-muted">创建时间: ${this.formatDate(playlist.createdAt)}</small>
+                                <small class="text-muted">最近刷新: ${this.formatDate(playlist.lastRefreshedAt)}</small>
                             </p>
                         </div>
                         <div class="card-footer">
@@ -70,8 +70,20 @@ const dashboard = {
                         </div>
                     </div>
                 `;
-                playlistListElement.appendChild(card);
+                // 歌单名称和封面来自网易云，只通过属性和textContent写入，不拼进HTML
+                card.querySelector('.card-title').textContent = playlist.name;
+                if (playlist.coverUrl) {
+                    const cover = document.createElement('img');
+                    cover.src = playlist.coverUrl + '?param=200y200';
+                    cover.className = 'img-fluid rounded mb-2';
+                    cover.alt = playlist.name;
+                    cover.loading = 'lazy';
+                    const cardBody = card.querySelector('.card-body');
+                    cardBody.insertBefore(cover, cardBody.querySelector('.card-text'));
+                }
+                fragment.appendChild(card);
             });
+            playlistListElement.appendChild(fragment);
 
             // 添加删除歌单事件监听
             this.setupDeletePlaylistButtons();
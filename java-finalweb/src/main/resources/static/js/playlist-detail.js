@@ -47,47 +47,141 @@ const playlistDetail = {
         document.getElementById('songCount').textContent = playlist.songCount || 0;
     },
 
-    // 加载歌曲列表
+    // 每页加载的歌曲数量
+    pageSize: 100,
+
+    // 分页加载状态
+    songsState: {
+        nextCursor: null,
+        hasMore: true,
+        loading: false,
+        loadedCount: 0
+    },
+
+    // 加载歌曲列表：先加载第一页，滚动到列表底部时继续加载后续页
     loadSongs: function(playlistId) {
-        axios.get(`/api/playlists/${playlistId}/songs`)
-            .then(response => {
-                const songs = response.data;
-                this.renderSongs(songs);
+        this.songsState = { nextCursor: null, hasMore: true, loading: false, loadedCount: 0 };
+        document.getElementById('songList').innerHTML = '';
+
+        this.loadNextSongsPage(playlistId)
+            .then(() => {
                 // 隐藏加载状态，显示内容
                 document.getElementById('loading').classList.add('d-none');
                 document.getElementById('content').classList.remove('d-none');
+                this.observeSongsSentinel(playlistId);
+            });
+    },
+
+    // 加载下一页歌曲
+    loadNextSongsPage: function(playlistId) {
+        const state = this.songsState;
+        if (state.loading || !state.hasMore) {
+            return Promise.resolve();
+        }
+        state.loading = true;
+
+        const params = { size: this.pageSize };
+        if (state.nextCursor !== null) {
+            params.after = state.nextCursor;
+        }
+
+        return this.fetchSongsPage(playlistId, params)
+            .then(page => {
+                this.renderSongs(page.songs);
+                state.nextCursor = page.nextCursor;
+                state.hasMore = page.hasMore;
             })
             .catch(error => {
                 console.error('加载歌曲列表失败:', error);
-                this.showError('加载歌曲列表失败');
+                state.hasMore = false;
+                const message = error.response && typeof error.response.data === 'string' ? error.response.data : '';
+                this.showError(message ? '加载歌曲列表失败: ' + message : '加载歌曲列表失败');
+            })
+            .finally(() => {
+                state.loading = false;
+                this.updateSongsSentinel();
             });
     },
 
-    // 渲染歌曲列表
+    // 读取一页歌曲；歌单同步或导入后还没有加载过歌曲时，先从网易云加载一次再重新读取
+    fetchSongsPage: function(playlistId, params) {
+        const pageUrl = `${api.baseUrl}/playlist/${playlistId}/songs/page`;
+        return axios.get(pageUrl, { params })
+            .then(response => {
+                if (response.data.loaded) {
+                    return response.data;
+                }
+                return axios.get(`${api.baseUrl}/playlist/${playlistId}/songs`)
+                    .then(() => axios.get(pageUrl, { params }))
+                    .then(retry => retry.data);
+            });
+    },
+
+    // 列表底部进入视口时加载下一页
+    observeSongsSentinel: function(playlistId) {
+        const sentinel = document.getElementById('songsSentinel');
+        if (!sentinel) {
+            return;
+        }
+        if (!('IntersectionObserver' in window)) {
+            // 不支持IntersectionObserver的浏览器改为点击加载
+            sentinel.addEventListener('click', () => this.loadNextSongsPage(playlistId));
+            return;
+        }
+        const observer = new IntersectionObserver(entries => {
+            if (entries.some(entry => entry.isIntersecting)) {
+                this.loadNextSongsPage(playlistId).then(() => {
+                    if (!this.songsState.hasMore) {
+                        observer.disconnect();
+                    }
+                });
+            }
+        }, { rootMargin: '400px' });
+        observer.observe(sentinel);
+    },
+
+    // 更新列表底部的加载提示
+    updateSongsSentinel: function() {
+        const sentinel = document.getElementById('songsSentinel');
+        if (sentinel) {
+            sentinel.classList.toggle('d-none', !this.songsState.hasMore);
+        }
+    },
+
+    // 追加渲染一页歌曲
     renderSongs: function(songs) {
         const songListElement = document.getElementById('songList');
         const emptySongsElement = document.getElementById('emptySongs');
-
-        // 清空现有列表
-        songListElement.innerHTML = '';
+        const state = this.songsState;
 
         if (songs && songs.length > 0) {
             // 有歌曲，隐藏空状态提示
             emptySongsElement.classList.add('d-none');
 
-            // 渲染歌曲
-            songs.forEach((song, index) => {
+            // 一次性插入整页，避免逐行触发重排
+            const fragment = document.createDocumentFragment();
+            songs.forEach(song => {
+                state.loadedCount++;
                 const row = document.createElement('tr');
-                row.innerHTML = `
-                    <th scope="row">${index + 1}</th>
-                    <td>${song.name}</td>
-                    <td>${song.artist}</td>
-                    <td>${song.album}</td>
-                    <td>${this.formatDuration(song.duration)}</td>
-                `;
-                songListElement.appendChild(row);
+                const indexCell = document.createElement('th');
+                indexCell.scope = 'row';
+                indexCell.textContent = state.loadedCount;
+                row.appendChild(indexCell);
+                // 歌曲信息来自网易云，只作为文本写入，不解析为HTML
+                [
+                    song.name,
+                    song.artists,
+                    song.album || '',
+                    this.formatDuration(song.duration != null ? song.duration / 1000 : null)
+                ].forEach(text => {
+                    const cell = document.createElement('td');
+                    cell.textContent = text;
+                    row.appendChild(cell);
+                });
+                fragment.appendChild(row);
             });
-        } else {
+            songListElement.appendChild(fragment);
+        } else if (state.loadedCount === 0) {
             // 没有歌曲，显示空状态提示
             emptySongsElement.classList.remove('d-none');
         }
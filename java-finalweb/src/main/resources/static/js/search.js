@@ -96,8 +96,11 @@ const search = {
 
     // 导入歌单
     importPlaylist: function(playlistId) {
-        axios.post(`/api/playlists/import/${playlistId}`)
-            .then(response => {
+        api.importPlaylists([String(playlistId)])
+            .then(result => {
+                if (result.failed > 0) {
+                    throw new Error(result.items[0].errorMessage);
+                }
                 alert('歌单导入成功！');
                 // 跳转到仪表盘
                 window.location.href = '/dashboard';
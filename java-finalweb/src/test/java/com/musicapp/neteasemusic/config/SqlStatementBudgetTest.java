@@ -0,0 +1,107 @@
+package com.musicapp.neteasemusic.config;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.User;
+import com.musicapp.neteasemusic.repository.PlaylistRepository;
+import com.musicapp.neteasemusic.repository.UserRepository;
+import com.musicapp.neteasemusic.security.services.UserDetailsImpl;
+import com.musicapp.neteasemusic.util.SqlStatementBudgetExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL语句预算：test环境下超出接口预算的请求以SqlStatementBudgetExceededException失败
+ * 歌单摘要接口只执行一条查询，分页接口先校验歌单归属再查询歌曲，共两条；两个接口的预算都设为1
+ */
+@SpringBootTest(properties = {
+        "sql.budget.PlaylistController.getUserPlaylistSummaries=1",
+        "sql.budget.PlaylistController.getPlaylistSongsPage=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlStatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlaylistRepository playlistRepository;
+
+    private User user;
+
+    private Playlist playlist;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("budget");
+        user.setPassword("password");
+        user.setEmail("budget@example.com");
+        user = userRepository.save(user);
+
+        playlist = new Playlist();
+        playlist.setName("Budget");
+        playlist.setNeteasePlaylistId("1001");
+        playlist.setUser(user);
+        // 已加载过歌曲的歌单才会查询歌曲分页
+        playlist.setSnapshotAt(new Date());
+        playlist = playlistRepository.save(playlist);
+    }
+
+    @AfterEach
+    void tearDown() {
+        playlistRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void requestWithinBudgetSucceeds() throws Exception {
+        mockMvc.perform(get("/api/playlist/user/summary").with(authentication(asUser())))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void requestOverBudgetFails() {
+        Throwable thrown = catchThrowable(() -> mockMvc.perform(
+                get("/api/playlist/{id}/songs/page", playlist.getId()).with(authentication(asUser()))));
+
+        // 异常在控制器返回后由拦截器抛出，不会被控制器转成400响应
+        assertThat(thrown).hasRootCauseInstanceOf(SqlStatementBudgetExceededException.class);
+        SqlStatementBudgetExceededException exceeded = (SqlStatementBudgetExceededException) rootCause(thrown);
+        assertThat(exceeded.getEndpoint()).isEqualTo("PlaylistController.getPlaylistSongsPage");
+        assertThat(exceeded.getLimit()).isEqualTo(1);
+        assertThat(exceeded.getCount()).isEqualTo(2);
+    }
+
+    private Authentication asUser() {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private static Throwable rootCause(Throwable thrown) {
+        Throwable cause = thrown;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
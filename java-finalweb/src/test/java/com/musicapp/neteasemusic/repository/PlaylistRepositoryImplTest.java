@@ -0,0 +1,240 @@
+package com.musicapp.neteasemusic.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.musicapp.neteasemusic.repository.PlaylistRepositoryImpl.POSITION_GAP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 歌单关联行的位置分配和差异写入
+ * 关联表的主键不允许同一首歌出现两次，旧数据的重复行只能通过模拟JdbcTemplate构造
+ */
+class PlaylistRepositoryImplTest {
+
+    private static final Long PLAYLIST_ID = 42L;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private PlaylistRepositoryImpl repository;
+
+    // 按SQL的第一个关键字（DELETE、UPDATE、INSERT）记录批处理参数
+    private Map<String, List<Object[]>> batches;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repository = new PlaylistRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+
+        batches = new HashMap<>();
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            batches.put(sql.substring(0, sql.indexOf(' ')), invocation.getArgument(1));
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void insertAtHeadTakesPositionBeforeFirstSong() {
+        long[] positions = PlaylistRepositoryImpl.assignPositions(Arrays.asList(9L, 1L, 2L, 3L),
+                positions(1L, 1024L, 2L, 2048L, 3L, 3072L));
+
+        assertThat(positions).containsExactly(0L, 1024L, 2048L, 3072L);
+    }
+
+    @Test
+    void insertAtHeadWritesOneRow() throws Exception {
+        givenRows(new Long[]{1L, 1024L}, new Long[]{2L, 2048L}, new Long[]{3L, 3072L});
+
+        int changed = repository.replaceSongs(PLAYLIST_ID, Arrays.asList(9L, 1L, 2L, 3L));
+
+        assertThat(changed).isEqualTo(1);
+        assertThat(batches).containsOnlyKeys("INSERT");
+        assertThat(batches.get("INSERT")).containsExactly(new Object[]{PLAYLIST_ID, 9L, 0L});
+    }
+
+    @Test
+    void fullReversalKeepsOneSongAndMovesTheRest() {
+        Map<Long, Long> current = positions(1L, 1024L, 2L, 2048L, 3L, 3072L, 4L, 4096L, 5L, 5120L);
+
+        long[] positions = PlaylistRepositoryImpl.assignPositions(Arrays.asList(5L, 4L, 3L, 2L, 1L), current);
+
+        assertStrictlyIncreasing(positions);
+        assertThat(positions[4]).isEqualTo(1024L);
+    }
+
+    @Test
+    void fullReversalUpdatesAllButOneRow() throws Exception {
+        givenRows(new Long[]{1L, 1024L}, new Long[]{2L, 2048L}, new Long[]{3L, 3072L},
+                new Long[]{4L, 4096L}, new Long[]{5L, 5120L});
+
+        int changed = repository.replaceSongs(PLAYLIST_ID, Arrays.asList(5L, 4L, 3L, 2L, 1L));
+
+        assertThat(changed).isEqualTo(4);
+        assertThat(batches).containsOnlyKeys("UPDATE");
+        assertThat(batches.get("UPDATE")).hasSize(4);
+    }
+
+    @Test
+    void gapLargeEnoughForRunIsUsedInPlace() {
+        List<Long> target = new ArrayList<>();
+        target.add(1L);
+        for (long id = 100; id < 100 + POSITION_GAP - 1; id++) {
+            target.add(id);
+        }
+        target.add(2L);
+
+        long[] positions = PlaylistRepositoryImpl.assignPositions(target, positions(1L, 1024L, 2L, 2048L));
+
+        assertStrictlyIncreasing(positions);
+        assertThat(positions[0]).isEqualTo(1024L);
+        assertThat(positions[positions.length - 1]).isEqualTo(2048L);
+    }
+
+    @Test
+    void exhaustedGapRenumbersEverySong() {
+        List<Long> target = new ArrayList<>();
+        target.add(1L);
+        for (long id = 100; id < 100 + POSITION_GAP; id++) {
+            target.add(id);
+        }
+        target.add(2L);
+
+        long[] positions = PlaylistRepositoryImpl.assignPositions(target, positions(1L, 1024L, 2L, 2048L));
+
+        for (int i = 0; i < positions.length; i++) {
+            assertThat(positions[i]).isEqualTo((i + 1) * POSITION_GAP);
+        }
+    }
+
+    @Test
+    void exhaustedGapRewritesMovedRows() throws Exception {
+        givenRows(new Long[]{1L, 1L}, new Long[]{2L, 2L});
+
+        int changed = repository.replaceSongs(PLAYLIST_ID, Arrays.asList(1L, 3L, 2L));
+
+        assertThat(changed).isEqualTo(3);
+        assertThat(batches.get("UPDATE")).containsExactly(
+                new Object[]{1024L, PLAYLIST_ID, 1L},
+                new Object[]{3072L, PLAYLIST_ID, 2L});
+        assertThat(batches.get("INSERT")).containsExactly(new Object[]{PLAYLIST_ID, 3L, 2048L});
+    }
+
+    @Test
+    void duplicateRowsFallBackToFullRewrite() throws Exception {
+        givenRows(new Long[]{1L, 1024L}, new Long[]{1L, 2048L}, new Long[]{2L, 3072L});
+        when(jdbcTemplate.update(startsWith("DELETE"), eq(PLAYLIST_ID))).thenReturn(3);
+
+        int changed = repository.replaceSongs(PLAYLIST_ID, Arrays.asList(2L, 1L));
+
+        assertThat(changed).isEqualTo(5);
+        assertThat(batches).containsOnlyKeys("INSERT");
+        assertThat(batches.get("INSERT")).containsExactly(
+                new Object[]{PLAYLIST_ID, 2L, 1024L},
+                new Object[]{PLAYLIST_ID, 1L, 2048L});
+    }
+
+    @Test
+    void legacyRowsWithoutPositionAreMoved() throws Exception {
+        givenRows(new Long[]{1L, null}, new Long[]{2L, null});
+
+        int changed = repository.replaceSongs(PLAYLIST_ID, Arrays.asList(1L, 2L));
+
+        assertThat(changed).isEqualTo(2);
+        assertThat(batches.get("UPDATE")).containsExactly(
+                new Object[]{1024L, PLAYLIST_ID, 1L},
+                new Object[]{2048L, PLAYLIST_ID, 2L});
+    }
+
+    @Test
+    void removedSongsAreDeletedAndDuplicateTargetsIgnored() throws Exception {
+        givenRows(new Long[]{1L, 1024L}, new Long[]{2L, 2048L}, new Long[]{3L, 3072L});
+
+        int changed = repository.replaceSongs(PLAYLIST_ID, Arrays.asList(1L, null, 3L, 1L));
+
+        assertThat(changed).isEqualTo(1);
+        assertThat(batches).containsOnlyKeys("DELETE");
+        assertThat(batches.get("DELETE")).containsExactly(new Object[]{PLAYLIST_ID, 2L});
+    }
+
+    @Test
+    void unchangedPlaylistWritesNothing() throws Exception {
+        givenRows(new Long[]{1L, 1024L}, new Long[]{2L, 2048L});
+
+        int changed = repository.replaceSongs(PLAYLIST_ID, Arrays.asList(1L, 2L));
+
+        assertThat(changed).isZero();
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    void newPlaylistsAreNumberedFromOneGap() {
+        Map<Long, List<Long>> songIds = new LinkedHashMap<>();
+        songIds.put(1L, Arrays.asList(10L, 11L, 10L));
+        songIds.put(2L, Collections.singletonList(12L));
+
+        int inserted = repository.insertSongs(songIds);
+
+        assertThat(inserted).isEqualTo(3);
+        assertThat(batches.get("INSERT")).containsExactly(
+                new Object[]{1L, 10L, 1024L},
+                new Object[]{1L, 11L, 2048L},
+                new Object[]{2L, 12L, 1024L});
+    }
+
+    /**
+     * 每行为{歌曲ID, 位置}，位置为null表示旧数据没有位置
+     */
+    private void givenRows(Long[]... rows) throws Exception {
+        List<ResultSet> resultSets = new ArrayList<>(rows.length);
+        for (Long[] row : rows) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(row[0]);
+            when(rs.getLong(2)).thenReturn(row[1] == null ? 0L : row[1]);
+            when(rs.wasNull()).thenReturn(row[1] == null);
+            resultSets.add(rs);
+        }
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : resultSets) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT"), any(RowCallbackHandler.class), eq(PLAYLIST_ID));
+    }
+
+    private static Map<Long, Long> positions(Long... songIdsAndPositions) {
+        Map<Long, Long> positions = new HashMap<>();
+        for (int i = 0; i < songIdsAndPositions.length; i += 2) {
+            positions.put(songIdsAndPositions[i], songIdsAndPositions[i + 1]);
+        }
+        return positions;
+    }
+
+    private static void assertStrictlyIncreasing(long[] positions) {
+        for (int i = 1; i < positions.length; i++) {
+            assertThat(positions[i]).isGreaterThan(positions[i - 1]);
+        }
+    }
+}
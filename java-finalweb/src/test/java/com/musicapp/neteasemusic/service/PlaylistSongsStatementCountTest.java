@@ -0,0 +1,144 @@
+package com.musicapp.neteasemusic.service;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.model.User;
+import com.musicapp.neteasemusic.repository.PlaylistRepository;
+import com.musicapp.neteasemusic.repository.UserRepository;
+import com.musicapp.neteasemusic.util.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * 刷新歌单歌曲时执行的SQL语句数只随分块数增长，同一分块内与歌单大小无关
+ * 每个歌单使用不重叠的网易云歌曲ID，保证每次都走查询、批量插入、再查回的完整路径
+ */
+@SpringBootTest(properties = "playlist.sync.chunk-size=1000")
+@ActiveProfiles("test")
+class PlaylistSongsStatementCountTest {
+
+    private static final String COOKIE = "MUSIC_U=test";
+
+    @Autowired
+    private PlaylistService playlistService;
+
+    @Autowired
+    private PlaylistRepository playlistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private NeteaseMusicApiService neteaseMusicApiService;
+
+    // 数据库和歌曲目录索引在测试方法之间共享，歌曲ID在整个测试类内不重复
+    private static long nextNeteaseSongId = 1;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("statements");
+        user.setPassword("password");
+        user.setEmail("statements@example.com");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        playlistRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPlaylistSize() throws Exception {
+        int small = countStatementsForNewPlaylist(10);
+        int medium = countStatementsForNewPlaylist(300);
+        int large = countStatementsForNewPlaylist(1000);
+
+        assertThat(medium).isEqualTo(small);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void refreshingKnownSongsDoesNotGrowWithPlaylistSize() throws Exception {
+        Playlist smallPlaylist = createPlaylist(10);
+        Playlist largePlaylist = createPlaylist(1000);
+        // 第一次刷新写入歌曲和关联，第二次刷新时歌曲均已存在
+        countStatements(smallPlaylist);
+        countStatements(largePlaylist);
+
+        assertThat(countStatements(largePlaylist)).isEqualTo(countStatements(smallPlaylist));
+    }
+
+    private int countStatementsForNewPlaylist(int trackCount) throws Exception {
+        return countStatements(createPlaylist(trackCount));
+    }
+
+    private int countStatements(Playlist playlist) throws Exception {
+        List<Song> songs;
+        int statementCount;
+        SqlStatementCounter.begin("refresh", Integer.MAX_VALUE);
+        try {
+            songs = playlistService.getPlaylistSongs(playlist.getId(), COOKIE, true);
+        } finally {
+            statementCount = SqlStatementCounter.end().getCount();
+        }
+        assertThat(songs).hasSize(playlist.getTrackCount());
+        assertThat(songs).allMatch(song -> song.getId() != null);
+        return statementCount;
+    }
+
+    private Playlist createPlaylist(int trackCount) throws Exception {
+        Playlist playlist = new Playlist();
+        playlist.setName("Playlist " + trackCount);
+        playlist.setNeteasePlaylistId("9" + trackCount + "0" + nextNeteaseSongId);
+        playlist.setTrackCount(trackCount);
+        playlist.setUser(user);
+        playlist = playlistRepository.save(playlist);
+
+        List<Song> tracks = new ArrayList<>(trackCount);
+        for (int i = 0; i < trackCount; i++) {
+            Song song = new Song();
+            song.setNeteaseSongId(nextNeteaseSongId++);
+            song.setName("Song " + i);
+            song.setArtists("Artist " + i);
+            song.setAlbum("Album");
+            song.setDuration(180000);
+            tracks.add(song);
+        }
+        when(neteaseMusicApiService.getPlaylistTracks(eq(playlist.getNeteasePlaylistId()), any(), anyString()))
+                .thenAnswer(invocation -> copyOf(tracks));
+        return playlist;
+    }
+
+    // 每次刷新都返回新的歌曲对象，与真实的上游调用一致
+    private static List<Song> copyOf(List<Song> tracks) {
+        List<Song> copies = new ArrayList<>(tracks.size());
+        for (Song track : tracks) {
+            Song copy = new Song();
+            copy.setNeteaseSongId(track.getNeteaseSongId());
+            copy.setName(track.getName());
+            copy.setArtists(track.getArtists());
+            copy.setAlbum(track.getAlbum());
+            copy.setDuration(track.getDuration());
+            copies.add(copy);
+        }
+        return copies;
+    }
+}
@@ -0,0 +1,139 @@
+package com.musicapp.neteasemusic.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.musicapp.neteasemusic.service.SongCatalogIndex.NOT_FOUND;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 单段、每代4个条目的索引，便于精确控制轮换的时机
+ */
+class SongCatalogIndexTest {
+
+    private SongCatalogIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SongCatalogIndex();
+        ReflectionTestUtils.setField(index, "maxEntries", 8);
+        ReflectionTestUtils.setField(index, "segmentCount", 1);
+        index.init();
+    }
+
+    @Test
+    void putAndGet() {
+        index.put(100L, 1L);
+
+        assertThat(index.get(100L)).isEqualTo(1L);
+        assertThat(index.get(101L)).isEqualTo(NOT_FOUND);
+        assertThat(index.getStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void nonPositiveIdsAreIgnored() {
+        index.put(0L, 1L);
+        index.put(-5L, 1L);
+        index.put(5L, 0L);
+
+        assertThat(index.get(0L)).isEqualTo(NOT_FOUND);
+        assertThat(index.get(-5L)).isEqualTo(NOT_FOUND);
+        assertThat(index.get(5L)).isEqualTo(NOT_FOUND);
+        assertThat(index.getStats()).containsEntry("entries", 0L);
+    }
+
+    @Test
+    void putAllSkipsNullEntries() {
+        Map<Long, Long> songIds = new HashMap<>();
+        songIds.put(1L, 11L);
+        songIds.put(2L, null);
+        songIds.put(null, 13L);
+
+        index.putAll(songIds);
+
+        assertThat(index.get(1L)).isEqualTo(11L);
+        assertThat(index.get(2L)).isEqualTo(NOT_FOUND);
+    }
+
+    @Test
+    void previousGenerationSurvivesOneRotation() {
+        putRange(1, 5);
+
+        // 1-4写满第一代后，写入5时轮换，1-4成为上一代
+        for (long key = 1; key <= 5; key++) {
+            assertThat(index.get(key)).isEqualTo(key * 10);
+        }
+        assertThat(index.getStats()).containsEntry("evictions", 0L);
+    }
+
+    @Test
+    void secondRotationEvictsColdEntries() {
+        putRange(1, 9);
+
+        for (long key = 1; key <= 4; key++) {
+            assertThat(index.get(key)).isEqualTo(NOT_FOUND);
+        }
+        for (long key = 5; key <= 9; key++) {
+            assertThat(index.get(key)).isEqualTo(key * 10);
+        }
+        assertThat(index.getStats()).containsEntry("evictions", 4L);
+    }
+
+    @Test
+    void promotedEntriesAreNotCountedAsEvicted() {
+        putRange(1, 5);
+        // 1从上一代提升到当前代
+        assertThat(index.get(1L)).isEqualTo(10L);
+        putRange(6, 8);
+
+        assertThat(index.get(1L)).isEqualTo(10L);
+        for (long key = 2; key <= 4; key++) {
+            assertThat(index.get(key)).isEqualTo(NOT_FOUND);
+        }
+        assertThat(index.getStats()).containsEntry("evictions", 3L);
+    }
+
+    @Test
+    void rotationWhilePromotingKeepsPromotedEntry() {
+        putRange(1, 8);
+        // 当前代5-8已满，上一代为1-4；读取1触发轮换，1应写入新的当前代
+        assertThat(index.get(1L)).isEqualTo(10L);
+
+        assertThat(index.getStats()).containsEntry("evictions", 3L);
+        assertThat(index.get(1L)).isEqualTo(10L);
+        for (long key = 2; key <= 4; key++) {
+            assertThat(index.get(key)).isEqualTo(NOT_FOUND);
+        }
+        for (long key = 5; key <= 8; key++) {
+            assertThat(index.get(key)).isEqualTo(key * 10);
+        }
+    }
+
+    @Test
+    void updatingPreviousGenerationEntryPromotesNewValue() {
+        putRange(1, 5);
+        index.put(2L, 99L);
+        putRange(6, 8);
+
+        assertThat(index.get(2L)).isEqualTo(99L);
+        assertThat(index.getStats()).containsEntry("evictions", 3L);
+    }
+
+    @Test
+    void entriesNeverExceedMaxEntries() {
+        putRange(1, 1000);
+
+        assertThat(index.getStats().get("entries")).isLessThanOrEqualTo(8L);
+        assertThat(index.getStats()).containsEntry("evictions", 1000L - 8L);
+    }
+
+    private void putRange(long from, long to) {
+        for (long key = from; key <= to; key++) {
+            index.put(key, key * 10);
+        }
+    }
+}
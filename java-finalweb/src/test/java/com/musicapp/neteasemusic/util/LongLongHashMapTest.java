@@ -0,0 +1,101 @@
+package com.musicapp.neteasemusic.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTest {
+
+    @Test
+    void putAndGet() {
+        LongLongHashMap map = new LongLongHashMap(16);
+        map.put(7L, 70L);
+        map.put(-7L, -70L);
+        map.put(Long.MAX_VALUE, 1L);
+        map.put(Long.MIN_VALUE, 2L);
+
+        assertThat(map.get(7L, -1L)).isEqualTo(70L);
+        assertThat(map.get(-7L, -1L)).isEqualTo(-70L);
+        assertThat(map.get(Long.MAX_VALUE, -1L)).isEqualTo(1L);
+        assertThat(map.get(Long.MIN_VALUE, -1L)).isEqualTo(2L);
+        assertThat(map.get(8L, -1L)).isEqualTo(-1L);
+        assertThat(map.containsKey(7L)).isTrue();
+        assertThat(map.containsKey(8L)).isFalse();
+        assertThat(map.size()).isEqualTo(4);
+    }
+
+    @Test
+    void putOverwritesExistingKey() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        map.put(1L, 10L);
+        map.put(1L, 11L);
+
+        assertThat(map.get(1L, -1L)).isEqualTo(11L);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void expectedSizeFitsWithoutResize() {
+        LongLongHashMap map = new LongLongHashMap(100);
+        long tableBytes = map.tableBytes();
+        for (long key = 1; key <= 100; key++) {
+            map.put(key, key);
+        }
+
+        assertThat(map.tableBytes()).isEqualTo(tableBytes);
+    }
+
+    @Test
+    void resizeRehashesEveryEntry() {
+        LongLongHashMap map = new LongLongHashMap(1);
+        long initialBytes = map.tableBytes();
+        // 连续的ID和相隔较大的ID混合写入，扩容多次
+        for (long key = 1; key <= 10000; key++) {
+            map.put(key, key * 2);
+            map.put(key << 32, -key);
+        }
+
+        assertThat(map.size()).isEqualTo(20000);
+        assertThat(map.tableBytes()).isGreaterThan(initialBytes);
+        for (long key = 1; key <= 10000; key++) {
+            assertThat(map.get(key, -1L)).isEqualTo(key * 2);
+            assertThat(map.get(key << 32, 0L)).isEqualTo(-key);
+        }
+        assertThat(map.get(10001L, -1L)).isEqualTo(-1L);
+    }
+
+    @Test
+    void clearKeepsTableForReuse() {
+        LongLongHashMap map = new LongLongHashMap(8);
+        for (long key = 1; key <= 1000; key++) {
+            map.put(key, key);
+        }
+        long tableBytes = map.tableBytes();
+
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        assertThat(map.tableBytes()).isEqualTo(tableBytes);
+        for (long key = 1; key <= 1000; key++) {
+            assertThat(map.containsKey(key)).isFalse();
+            assertThat(map.get(key, -1L)).isEqualTo(-1L);
+        }
+
+        // 清空后写入的值不受旧值影响
+        map.put(5L, 55L);
+        assertThat(map.get(5L, -1L)).isEqualTo(55L);
+        assertThat(map.get(6L, -1L)).isEqualTo(-1L);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void keyZeroIsReserved() {
+        LongLongHashMap map = new LongLongHashMap(4);
+
+        assertThatThrownBy(() -> map.put(0L, 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.get(0L, -1L)).isEqualTo(-1L);
+        assertThat(map.containsKey(0L)).isFalse();
+        assertThat(map.size()).isZero();
+    }
+}
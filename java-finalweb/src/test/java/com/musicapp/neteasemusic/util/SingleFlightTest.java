@@ -0,0 +1,247 @@
+package com.musicapp.neteasemusic.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * 领头请求的加载被闭锁阻塞，跟随请求在加载完成前全部到达，结果和异常的共享因此是确定的
+ */
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 8;
+
+    private SingleFlight<String, String> flight;
+
+    private ExecutorService executor;
+
+    private CountDownLatch loading;
+
+    private CountDownLatch release;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        flight = new SingleFlight<>();
+        executor = Executors.newCachedThreadPool();
+        loading = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentRequestsShareOneLoad() throws Exception {
+        Future<String> leader = startLeader(() -> "value");
+        List<Future<String>> followers = startFollowers();
+
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        for (Future<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(flight.getStats())
+                .containsEntry("requests", (long) FOLLOWERS + 1)
+                .containsEntry("executions", 1L)
+                .containsEntry("coalesced", (long) FOLLOWERS)
+                .containsEntry("inFlight", 0L);
+    }
+
+    @Test
+    void followersSeeLeadersIOException() throws Exception {
+        IOException failure = new IOException("upstream failed");
+        Future<String> leader = startLeader(() -> {
+            throw failure;
+        });
+        List<Future<String>> followers = startFollowers();
+
+        release.countDown();
+
+        assertThat(causeOf(leader)).isSameAs(failure);
+        for (Future<String> follower : followers) {
+            // 跟随请求拿到包装后的异常，原异常作为cause
+            Throwable thrown = causeOf(follower);
+            assertThat(thrown).isInstanceOf(IOException.class).hasMessage("upstream failed").hasCause(failure);
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void followersKeepThrottlingDetails() throws Exception {
+        UpstreamThrottledException failure = new UpstreamThrottledException("throttled", 7, true);
+        Future<String> leader = startLeader(() -> {
+            throw failure;
+        });
+        List<Future<String>> followers = startFollowers();
+
+        release.countDown();
+
+        assertThat(causeOf(leader)).isSameAs(failure);
+        for (Future<String> follower : followers) {
+            Throwable thrown = causeOf(follower);
+            assertThat(thrown).isInstanceOf(UpstreamThrottledException.class).hasCause(failure);
+            assertThat(((UpstreamThrottledException) thrown).getRetryAfterSeconds()).isEqualTo(7L);
+            assertThat(((UpstreamThrottledException) thrown).isUpstream()).isTrue();
+        }
+    }
+
+    @Test
+    void followersSeeLeadersRuntimeException() throws Exception {
+        IllegalStateException failure = new IllegalStateException("broken");
+        Future<String> leader = startLeader(() -> {
+            throw failure;
+        });
+        List<Future<String>> followers = startFollowers();
+
+        release.countDown();
+
+        assertThat(causeOf(leader)).isSameAs(failure);
+        for (Future<String> follower : followers) {
+            assertThat(causeOf(follower)).isSameAs(failure);
+        }
+    }
+
+    @Test
+    void keyIsRemovedAfterCompletion() throws Exception {
+        assertThat(flight.execute("key", () -> "first")).isEqualTo("first");
+        assertThat(flight.getStats()).containsEntry("inFlight", 0L);
+
+        // 结果不缓存，下一次请求重新加载
+        assertThat(flight.execute("key", () -> "second")).isEqualTo("second");
+        assertThat(flight.getStats()).containsEntry("executions", 2L).containsEntry("coalesced", 0L);
+    }
+
+    @Test
+    void keyIsRemovedAfterFailure() throws Exception {
+        Throwable thrown = catchThrowable(() -> flight.execute("key", () -> {
+            throw new IOException("failed");
+        }));
+        assertThat(thrown).isInstanceOf(IOException.class);
+        assertThat(flight.getStats()).containsEntry("inFlight", 0L);
+
+        assertThat(flight.execute("key", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    void differentKeysLoadIndependently() throws Exception {
+        Future<String> leader = startLeader(() -> "blocked");
+
+        // 另一个键不等待被阻塞的加载
+        assertThat(flight.execute("other", () -> "other")).isEqualTo("other");
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("blocked");
+        assertThat(flight.getStats()).containsEntry("executions", 2L).containsEntry("coalesced", 0L);
+    }
+
+    @Test
+    void interruptedWaiterGivesUpWithoutAffectingLeader() throws Exception {
+        Future<String> leader = startLeader(() -> "value");
+
+        AtomicReference<Throwable> waiterFailure = new AtomicReference<>();
+        AtomicBoolean interruptFlag = new AtomicBoolean();
+        Thread waiter = new Thread(() -> {
+            try {
+                flight.execute("key", () -> "unexpected");
+            } catch (Throwable e) {
+                waiterFailure.set(e);
+                interruptFlag.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        waiter.start();
+        awaitCoalesced(1);
+
+        waiter.interrupt();
+        waiter.join(5000);
+
+        assertThat(waiter.isAlive()).isFalse();
+        assertThat(waiterFailure.get()).isInstanceOf(InterruptedIOException.class)
+                .hasCauseInstanceOf(InterruptedException.class);
+        assertThat(interruptFlag).isTrue();
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(loads).hasValue(1);
+        assertThat(flight.getStats()).containsEntry("inFlight", 0L);
+    }
+
+    /**
+     * 启动领头请求，返回时加载已开始并阻塞在release上
+     */
+    private Future<String> startLeader(SingleFlight.Loader<String> result) throws Exception {
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            awaitRelease();
+            return result.load();
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        return leader;
+    }
+
+    /**
+     * 启动跟随请求，返回时所有请求都已在等待领头请求的结果
+     */
+    private List<Future<String>> startFollowers() throws Exception {
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() -> flight.execute("key", () -> {
+                loads.incrementAndGet();
+                return "unexpected";
+            })));
+        }
+        awaitCoalesced(FOLLOWERS);
+        return followers;
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getStats().get("coalesced") < expected) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private void awaitRelease() throws InterruptedIOException {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static Throwable causeOf(Future<String> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("Expected the request to fail");
+    }
+}
@@ -0,0 +1,209 @@
+package com.musicapp.neteasemusic.util;
+
+import com.musicapp.neteasemusic.model.Playlist;
+import com.musicapp.neteasemusic.model.Song;
+import com.musicapp.neteasemusic.service.export.TxtExportFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Utf8ByteWriter和TxtExportFormat的输出必须与原先String.format + OutputStreamWriter的渲染逐字节一致
+ * 导出时间随当前时间变化，比较前统一替换为固定文本
+ */
+class Utf8ByteWriterTest {
+
+    private static final String[] TEXTS = {
+            "",
+            "plain ascii",
+            "晴天 - 周杰伦",
+            "Ünïcödé ß",
+            "emoji 🎵 and 😀",
+            "lone high \uD800 end",
+            "lone low \uDC00 end",
+            "trailing high \uD83C",
+            "reversed \uDFB5\uD83C pair",
+            "\uFFFF\u0800\u07FF\u0080\u007F"
+    };
+
+    @Test
+    void stringsMatchOutputStreamWriter() throws IOException {
+        for (String text : TEXTS) {
+            assertThat(render(w -> w.write(text), 8192)).as(text).isEqualTo(baseline(text));
+        }
+    }
+
+    @Test
+    void nullStringIsWrittenAsNull() throws IOException {
+        assertThat(render(w -> w.write((String) null), 8192)).isEqualTo(baseline("" + null));
+    }
+
+    @Test
+    void multiByteCharactersAreNotSplitAcrossBufferFlushes() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            text.append('a').append("歌").append("🎵").append('\uD800');
+        }
+        // 最小缓冲区为16字节，每次循环都会在不同位置跨越缓冲区边界
+        for (int bufferSize = 1; bufferSize <= 20; bufferSize++) {
+            assertThat(render(w -> w.write(text.toString()), bufferSize))
+                    .isEqualTo(baseline(text.toString()));
+        }
+    }
+
+    @Test
+    void nonAsciiCharIsEncoded() throws IOException {
+        assertThat(render(w -> w.write('歌').write('a').write('é'), 8192)).isEqualTo(baseline("歌aé"));
+    }
+
+    @Test
+    void intsMatchIntegerToString() throws IOException {
+        int[] values = {0, 1, 9, 10, 99, 100, -1, -9, -10, 123456789, 999999999, 1000000000,
+                Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE + 1};
+        for (int value : values) {
+            assertThat(render(w -> w.writeInt(value), 8192)).as("%d", value)
+                    .isEqualTo(baseline(Integer.toString(value)));
+            assertThat(render(w -> w.writeInt(value), 16)).as("%d", value)
+                    .isEqualTo(baseline(Integer.toString(value)));
+        }
+    }
+
+    @Test
+    void twoDigitsMatchStringFormat() throws IOException {
+        int[] values = {0, 5, 9, 10, 59, 100, -1, -5, -10, Integer.MIN_VALUE};
+        for (int value : values) {
+            assertThat(render(w -> w.writeTwoDigits(value), 8192)).as("%d", value)
+                    .isEqualTo(baseline(String.format("%02d", value)));
+        }
+    }
+
+    @Test
+    void durationsMatchBaselineFormat() throws IOException {
+        int[] durations = {0, 999, 1000, 5000, 9999, 10000, 59999, 60000, 61000, 600000, 3599000,
+                3600000, 35999000, -1000, -5000, -61000, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int duration : durations) {
+            assertThat(render(w -> TxtExportFormat.writeDuration(w, duration), 8192)).as("%d", duration)
+                    .isEqualTo(baseline(baselineDuration(duration)));
+        }
+    }
+
+    @Test
+    void playlistExportMatchesBaseline() throws IOException {
+        Playlist playlist = playlist("我的歌单 🎵", "描述 \uD800 含孤立代理字符");
+        List<Song> songs = Arrays.asList(
+                song("晴天", "周杰伦", "叶惠美", 269000),
+                song("Short", "Artist", "", 9000),
+                song("😀 emoji", "A/B", null, null),
+                song(null, null, null, 3000),
+                song("Negative", "Nobody", "Album", -61000),
+                song("Long", "Someone", "Live", Integer.MAX_VALUE)
+        );
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new TxtExportFormat().write(playlist, songs.iterator(), songs.size(), out);
+
+        assertThat(maskExportTime(out.toByteArray())).isEqualTo(maskExportTime(baselineExport(playlist, songs)));
+    }
+
+    @Test
+    void playlistWithoutDescriptionOrSongsMatchesBaseline() throws IOException {
+        for (String description : new String[]{null, ""}) {
+            Playlist playlist = playlist(null, description);
+            List<Song> songs = Arrays.asList();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new TxtExportFormat().write(playlist, songs.iterator(), songs.size(), out);
+
+            assertThat(maskExportTime(out.toByteArray())).isEqualTo(maskExportTime(baselineExport(playlist, songs)));
+        }
+    }
+
+    private interface WriterAction {
+        void apply(Utf8ByteWriter writer) throws IOException;
+    }
+
+    private static byte[] render(WriterAction action, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Utf8ByteWriter writer = new Utf8ByteWriter(out, bufferSize);
+        action.apply(writer);
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private static byte[] baseline(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStreamWriter writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write(text);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 改造前ExportService.exportPlaylistToTxt的实现
+     */
+    private static byte[] baselineExport(Playlist playlist, List<Song> songs) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStreamWriter writer = new OutputStreamWriter(baos, StandardCharsets.UTF_8)) {
+            writer.write("===== 歌单信息 =====\n");
+            writer.write("歌单名称: " + playlist.getName() + "\n");
+            if (playlist.getDescription() != null && !playlist.getDescription().isEmpty()) {
+                writer.write("歌单描述: " + playlist.getDescription() + "\n");
+            }
+            writer.write("歌曲数量: " + songs.size() + "\n");
+            writer.write("导出时间: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()) + "\n");
+            writer.write("==================\n\n");
+
+            writer.write("===== 歌曲列表 =====\n");
+            for (int i = 0; i < songs.size(); i++) {
+                Song song = songs.get(i);
+                writer.write(String.format("%d. %s - %s\n", i + 1, song.getName(), song.getArtists()));
+                if (song.getAlbum() != null && !song.getAlbum().isEmpty()) {
+                    writer.write("   专辑: " + song.getAlbum() + "\n");
+                }
+                if (song.getDuration() != null) {
+                    writer.write("   时长: " + baselineDuration(song.getDuration()) + "\n");
+                }
+                writer.write("\n");
+            }
+            writer.write("==================\n");
+        }
+        return baos.toByteArray();
+    }
+
+    private static String baselineDuration(int milliseconds) {
+        int totalSeconds = milliseconds / 1000;
+        int minutes = totalSeconds / 60;
+        int seconds = totalSeconds % 60;
+        return String.format("%d:%02d", minutes, seconds);
+    }
+
+    private static String maskExportTime(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8)
+                .replaceAll("导出时间: \\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}", "导出时间: <time>");
+    }
+
+    private static Playlist playlist(String name, String description) {
+        Playlist playlist = new Playlist();
+        playlist.setName(name);
+        playlist.setDescription(description);
+        return playlist;
+    }
+
+    private static Song song(String name, String artists, String album, Integer duration) {
+        Song song = new Song();
+        song.setName(name);
+        song.setArtists(artists);
+        song.setAlbum(album);
+        song.setDuration(duration);
+        return song;
+    }
+}